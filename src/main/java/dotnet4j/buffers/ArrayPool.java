@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.buffers;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * ArrayPool.
+ * <p>
+ * A pool of byte arrays, the byte version of {@code System.Buffers.ArrayPool<byte>}.
+ * Rented arrays may be longer than requested and may contain garbage of the
+ * previous user. Return them when they are not used any more, returning is
+ * optional but an array must not be used after it is returned.
+ * <p>
+ * Besides of heap arrays, direct {@link ByteBuffer}s are pooled in the same
+ * manner.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public abstract class ArrayPool {
+
+    /** the same as .NET's shared pool, 1MB */
+    private static final int DefaultMaxArrayLength = 1024 * 1024;
+
+    /** arrays per size class in the shared (not thread local) part */
+    private static final int DefaultMaxArraysPerBucket = 50;
+
+    private static final ArrayPool shared = new BucketArrayPool(DefaultMaxArrayLength, DefaultMaxArraysPerBucket, true);
+
+    /**
+     * @return the process-wide pool, it has thread local caches in front of
+     *         the shared buckets.
+     */
+    public static ArrayPool getShared() {
+        return shared;
+    }
+
+    /** @return a new pool with the default configuration and no thread local caches */
+    public static ArrayPool create() {
+        return create(DefaultMaxArrayLength, DefaultMaxArraysPerBucket);
+    }
+
+    /**
+     * @param maxArrayLength arrays longer than this are not pooled
+     * @param maxArraysPerBucket the number of arrays kept for each size class
+     * @return a new pool with no thread local caches
+     */
+    public static ArrayPool create(int maxArrayLength, int maxArraysPerBucket) {
+        if (maxArrayLength <= 0)
+            throw new IllegalArgumentException("maxArrayLength is not positive");
+        if (maxArraysPerBucket <= 0)
+            throw new IllegalArgumentException("maxArraysPerBucket is not positive");
+
+        return new BucketArrayPool(maxArrayLength, maxArraysPerBucket, false);
+    }
+
+    /**
+     * @param minimumLength the minimum length of the array needed
+     * @return an array which length is at least {@code minimumLength}
+     */
+    public abstract byte[] rent(int minimumLength);
+
+    /** returns an array to the pool without clearing it */
+    public void returnArray(byte[] array) {
+        returnArray(array, false);
+    }
+
+    /**
+     * @param array an array rented from this pool
+     * @param clearArray true to fill the array with zero before it is pooled
+     * @throws IllegalArgumentException the array is not the one of this pool
+     */
+    public abstract void returnArray(byte[] array, boolean clearArray);
+
+    /**
+     * @param minimumCapacity the minimum capacity of the buffer needed
+     * @return a cleared direct buffer which capacity is at least {@code minimumCapacity}
+     */
+    public abstract ByteBuffer rentDirect(int minimumCapacity);
+
+    /**
+     * @param buffer a direct buffer rented from this pool
+     * @throws IllegalArgumentException the buffer is not the one of this pool
+     */
+    public abstract void returnDirect(ByteBuffer buffer);
+}
+
+/* */
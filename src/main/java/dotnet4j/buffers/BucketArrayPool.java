@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.buffers;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+
+/**
+ * BucketArrayPool.
+ * <p>
+ * Arrays are pooled in power of two size classes from 16 bytes up to the max
+ * array length. Each size class has a bounded stack shared by all threads,
+ * and optionally one slot per thread in front of it, so that the common
+ * rent/return pair on the same thread takes no lock. Virtual threads are
+ * short lived, they do not use the slots, not to lose the arrays returned
+ * on them.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class BucketArrayPool extends ArrayPool {
+
+    /** the smallest size class is 16 bytes */
+    private static final int MinimumArrayLengthShift = 4;
+
+    private static final byte[] empty = new byte[0];
+
+    /** Thread#isVirtual (java 21~), null when the runtime has no virtual threads */
+    private static final Method isVirtual;
+
+    static {
+        Method method;
+        try {
+            method = Thread.class.getMethod("isVirtual");
+        } catch (NoSuchMethodException e) {
+            method = null;
+        }
+        isVirtual = method;
+    }
+
+    private static boolean isVirtualThread() {
+        if (isVirtual == null)
+            return false;
+        try {
+            return (Boolean) isVirtual.invoke(Thread.currentThread());
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /** bounded stack of pooled objects, guarded by itself */
+    private static class Bucket<T> {
+        final Object[] items;
+        int count;
+
+        Bucket(int capacity) {
+            items = new Object[capacity];
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized T pop() {
+            if (count == 0)
+                return null;
+            T item = (T) items[--count];
+            items[count] = null;
+            return item;
+        }
+
+        synchronized boolean push(T item) {
+            if (count == items.length)
+                return false;
+            items[count++] = item;
+            return true;
+        }
+    }
+
+    private final int maxArrayLength;
+
+    private final Bucket<byte[]>[] arrayBuckets;
+
+    private final Bucket<ByteBuffer>[] directBuckets;
+
+    /** one array per size class per thread, null when there are no thread local caches */
+    private final ThreadLocal<byte[][]> localArrays;
+
+    /** one buffer per size class per thread, null when there are no thread local caches */
+    private final ThreadLocal<ByteBuffer[]> localDirects;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BucketArrayPool(int maxArrayLength, int maxArraysPerBucket, boolean threadLocal) {
+        int buckets = Math.max(0, bucketIndex(maxArrayLength)) + 1;
+        this.maxArrayLength = lengthOf(buckets - 1);
+        arrayBuckets = (Bucket<byte[]>[]) new Bucket[buckets];
+        directBuckets = (Bucket<ByteBuffer>[]) new Bucket[buckets];
+        for (int i = 0; i < buckets; i++) {
+            arrayBuckets[i] = new Bucket<>(maxArraysPerBucket);
+            directBuckets[i] = new Bucket<>(maxArraysPerBucket);
+        }
+        if (threadLocal) {
+            localArrays = ThreadLocal.withInitial(() -> new byte[buckets][]);
+            localDirects = ThreadLocal.withInitial(() -> new ByteBuffer[buckets]);
+        } else {
+            localArrays = null;
+            localDirects = null;
+        }
+    }
+
+    /** @return the slots of the current thread, null when it does not use them */
+    private byte[][] localArrays() {
+        return localArrays != null && !isVirtualThread() ? localArrays.get() : null;
+    }
+
+    /** @return the slots of the current thread, null when it does not use them */
+    private ByteBuffer[] localDirects() {
+        return localDirects != null && !isVirtualThread() ? localDirects.get() : null;
+    }
+
+    /** @return the index of the smallest size class which can hold {@code length} */
+    private static int bucketIndex(int length) {
+        if (length <= 1 << MinimumArrayLengthShift)
+            return 0;
+        return 32 - Integer.numberOfLeadingZeros(length - 1) - MinimumArrayLengthShift;
+    }
+
+    private static int lengthOf(int bucketIndex) {
+        return 1 << (bucketIndex + MinimumArrayLengthShift);
+    }
+
+    /** @return the bucket index for a returned object, -1 when it is too large to be pooled */
+    private int checkReturned(int length) {
+        if (length > maxArrayLength)
+            return -1;
+        int index = bucketIndex(length);
+        if (lengthOf(index) != length)
+            throw new IllegalArgumentException("the buffer is not associated with this pool: " + length);
+        return index;
+    }
+
+    @Override
+    public byte[] rent(int minimumLength) {
+        if (minimumLength < 0)
+            throw new IllegalArgumentException("minimumLength is negative");
+        if (minimumLength == 0)
+            return empty;
+        if (minimumLength > maxArrayLength)
+            return new byte[minimumLength];
+
+        int index = bucketIndex(minimumLength);
+        byte[][] locals = localArrays();
+        if (locals != null) {
+            byte[] array = locals[index];
+            if (array != null) {
+                locals[index] = null;
+                return array;
+            }
+        }
+        byte[] array = arrayBuckets[index].pop();
+        return array != null ? array : new byte[lengthOf(index)];
+    }
+
+    @Override
+    public void returnArray(byte[] array, boolean clearArray) {
+        if (array == null)
+            throw new NullPointerException("array");
+        if (array.length == 0)
+            return;
+        int index = checkReturned(array.length);
+        if (index < 0)
+            return;
+
+        if (clearArray)
+            Arrays.fill(array, (byte) 0);
+        byte[][] locals = localArrays();
+        if (locals != null) {
+            byte[] previous = locals[index];
+            locals[index] = array;
+            if (previous == null)
+                return;
+            array = previous;
+        }
+        arrayBuckets[index].push(array);
+    }
+
+    @Override
+    public ByteBuffer rentDirect(int minimumCapacity) {
+        if (minimumCapacity < 0)
+            throw new IllegalArgumentException("minimumCapacity is negative");
+        if (minimumCapacity > maxArrayLength)
+            return ByteBuffer.allocateDirect(minimumCapacity);
+
+        int index = bucketIndex(minimumCapacity);
+        ByteBuffer buffer = null;
+        ByteBuffer[] locals = localDirects();
+        if (locals != null) {
+            buffer = locals[index];
+            locals[index] = null;
+        }
+        if (buffer == null)
+            buffer = directBuckets[index].pop();
+        if (buffer == null)
+            return ByteBuffer.allocateDirect(lengthOf(index));
+        buffer.clear();
+        return buffer;
+    }
+
+    @Override
+    public void returnDirect(ByteBuffer buffer) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (!buffer.isDirect())
+            throw new IllegalArgumentException("the buffer is not direct");
+        int index = checkReturned(buffer.capacity());
+        if (index < 0)
+            return;
+
+        ByteBuffer[] locals = localDirects();
+        if (locals != null) {
+            ByteBuffer previous = locals[index];
+            locals[index] = buffer;
+            if (previous == null)
+                return;
+            buffer = previous;
+        }
+        directBuckets[index].push(buffer);
+    }
+}
+
+/* */
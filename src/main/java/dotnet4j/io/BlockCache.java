@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * BlockCache.
+ * <p>
+ * A memory bounded LRU cache of stream blocks for {@link CachingStream}s.
+ * Blocks are keyed by the identity of the underlying stream, the block size
+ * and the block index, so the streams wrapping the same stream share the
+ * blocks. This class is thread safe.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class BlockCache {
+
+    /** 64MB */
+    public static final long DefaultCapacity = 64 * 1024 * 1024;
+
+    private static final BlockCache shared = new BlockCache(DefaultCapacity);
+
+    /** @return the process wide cache */
+    public static BlockCache getShared() {
+        return shared;
+    }
+
+    /** the stream is compared by identity */
+    private static final class Key {
+        final Stream stream;
+        final int blockSize;
+        final long index;
+
+        Key(Stream stream, int blockSize, long index) {
+            this.stream = stream;
+            this.blockSize = blockSize;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key key = (Key) o;
+            return stream == key.stream && blockSize == key.blockSize && index == key.index;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(stream) * 31 + blockSize) * 31 + Long.hashCode(index);
+        }
+    }
+
+    private final long capacity;
+
+    /** access ordered, the eldest is the least recently used, guarded by this */
+    private final LinkedHashMap<Key, byte[]> blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long size;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    /**
+     * @param capacity the maximum total bytes of the blocks
+     */
+    public BlockCache(long capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity is not positive");
+
+        this.capacity = capacity;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the block, null if it is not cached. the caller must not modify it
+     */
+    public synchronized byte[] get(Stream stream, int blockSize, long index) {
+        byte[] block = blocks.get(new Key(stream, blockSize, index));
+        if (block != null)
+            hits++;
+        else
+            misses++;
+        return block;
+    }
+
+    /**
+     * Caches the block, the least recently used blocks are evicted to keep the
+     * capacity. A block larger than the capacity is not cached.
+     *
+     * @param block the cache owns it after this call
+     */
+    public synchronized void put(Stream stream, int blockSize, long index, byte[] block) {
+        if (block.length > capacity)
+            return;
+
+        byte[] old = blocks.put(new Key(stream, blockSize, index), block);
+        if (old != null)
+            size -= old.length;
+        size += block.length;
+
+        Iterator<byte[]> i = blocks.values().iterator();
+        while (size > capacity && i.hasNext()) {
+            size -= i.next().length;
+            i.remove();
+            evictions++;
+        }
+    }
+
+    /** removes a block of the stream */
+    public synchronized void invalidate(Stream stream, int blockSize, long index) {
+        byte[] old = blocks.remove(new Key(stream, blockSize, index));
+        if (old != null)
+            size -= old.length;
+    }
+
+    /** removes all the blocks of the stream */
+    public synchronized void invalidate(Stream stream) {
+        Iterator<Map.Entry<Key, byte[]>> i = blocks.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<Key, byte[]> e = i.next();
+            if (e.getKey().stream == stream) {
+                size -= e.getValue().length;
+                i.remove();
+            }
+        }
+    }
+
+    /** removes all the blocks, the statistics are kept */
+    public synchronized void clear() {
+        blocks.clear();
+        size = 0;
+    }
+
+    /** @return the total bytes of the cached blocks */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /** @return the number of the cached blocks */
+    public synchronized int getBlockCount() {
+        return blocks.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "BlockCache{" +
+                "capacity=" + capacity +
+                ", size=" + size +
+                ", blocks=" + blocks.size() +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+}
+
+/* */
@@ -6,6 +6,8 @@ package dotnet4j.io;
 
 import java.io.IOException;
 
+import dotnet4j.buffers.ArrayPool;
+
 
 /**
  * One of the design goals here is to prevent the buffer from getting in the way
@@ -47,7 +49,7 @@ public class BufferedStream extends Stream {
     // Underlying stream. Close sets _stream to null.
     private Stream _stream;
 
-    // Shared read/write buffer. Alloc on first use.
+    // Shared read/write buffer. Rented from the pool on first use, may be longer than _bufferSize.
     private byte[] _buffer;
 
     // Length of buffer (not counting the shadow buffer).
@@ -62,6 +64,10 @@ public class BufferedStream extends Stream {
     // Write pointer within shared buffer.
     private int _writePos;
 
+    // Position of _buffer[0] in _stream while READ data is buffered, -1 if not asked to _stream yet.
+    // Seeks inside the READ buffer use this instead of seeking _stream.
+    private long _bufferOrigin = -1;
+
     public BufferedStream(Stream stream) {
         this(stream, _DefaultBufferSize);
     }
@@ -123,12 +129,14 @@ public class BufferedStream extends Stream {
         assert _buffer != null;
         assert _bufferSize > 0;
 
-        // Already have shadow buffer?
-        if (_buffer.length != _bufferSize || _bufferSize >= MaxShadowBufferSize)
+        // Already have shadow buffer? (a pooled buffer may be large enough from the beginning)
+        int shadowBufferSize = Math.min(_bufferSize + _bufferSize, MaxShadowBufferSize);
+        if (_buffer.length >= shadowBufferSize || _bufferSize >= MaxShadowBufferSize)
             return;
 
-        byte[] shadowBuffer = new byte[Math.min(_bufferSize + _bufferSize, MaxShadowBufferSize)];
+        byte[] shadowBuffer = ArrayPool.getShared().rent(shadowBufferSize);
         System.arraycopy(_buffer, 0, shadowBuffer, 0, _writePos);
+        ArrayPool.getShared().returnArray(_buffer);
         _buffer = shadowBuffer;
     }
 
@@ -139,7 +147,7 @@ public class BufferedStream extends Stream {
         // BufferedStream is not intended for multi-threaded use, so no worries about
         // the get/set ---- on _buffer.
         if (_buffer == null)
-            _buffer = new byte[_bufferSize];
+            _buffer = ArrayPool.getShared().rent(_bufferSize);
     }
 
     int getBufferSize() {
@@ -183,12 +191,7 @@ public class BufferedStream extends Stream {
         ensureNotClosed();
         ensureCanSeek();
 
-        if (_writePos > 0)
-            flushWrite();
-
-        _readPos = 0;
-        _readLen = 0;
-        _stream.seek(value, SeekOrigin.Begin);
+        seek(value, SeekOrigin.Begin);
     }
 
     public void close() throws IOException {
@@ -202,7 +205,10 @@ public class BufferedStream extends Stream {
             }
         } finally {
             _stream = null;
-            _buffer = null;
+            if (_buffer != null) {
+                ArrayPool.getShared().returnArray(_buffer);
+                _buffer = null;
+            }
         }
     }
 
@@ -249,6 +255,7 @@ public class BufferedStream extends Stream {
             _stream.flush();
 
         _writePos = _readPos = _readLen = 0;
+        _bufferOrigin = -1;
     }
 
     /**
@@ -265,6 +272,7 @@ public class BufferedStream extends Stream {
 
         _readPos = 0;
         _readLen = 0;
+        _bufferOrigin = -1;
     }
 
     /** This is called by write methods to clear the read buffer. */
@@ -275,6 +283,7 @@ public class BufferedStream extends Stream {
         if (_readPos == _readLen) {
 
             _readPos = _readLen = 0;
+            _bufferOrigin = -1;
             return;
         }
 
@@ -362,6 +371,7 @@ public class BufferedStream extends Stream {
         // So the READ buffer is empty.
         assert _readLen == _readPos;
         _readPos = _readLen = 0;
+        _bufferOrigin = -1;
 
         // If there was anything in the WRITE buffer, clear it.
         if (_writePos > 0)
@@ -377,6 +387,7 @@ public class BufferedStream extends Stream {
         // Ok. We can fill the buffer:
         EnsureBufferAllocated();
         _readLen = _stream.read(_buffer, 0, _bufferSize);
+        _bufferOrigin = -1;
 
         bytesFromBuffer = readFromBuffer(array, offset, count);
 
@@ -395,7 +406,8 @@ public class BufferedStream extends Stream {
         return bytesFromBuffer + alreadySatisfied;
     }
 
-    public int readbyte() {
+    @Override
+    public int readByte() {
 
         ensureNotClosed();
         ensureCanRead();
@@ -408,13 +420,13 @@ public class BufferedStream extends Stream {
             EnsureBufferAllocated();
             _readLen = _stream.read(_buffer, 0, _bufferSize);
             _readPos = 0;
+            _bufferOrigin = -1;
         }
 
         if (_readPos == _readLen)
             return -1;
 
-        int b = _buffer[_readPos++];
-        return b;
+        return _buffer[_readPos++] & 0xff;
     }
 
     private void writeToBuffer(byte[] array, int[] offset, int[] count) {
@@ -592,7 +604,8 @@ public class BufferedStream extends Stream {
         }
     }
 
-    public void writebyte(byte value) {
+    @Override
+    public void writeByte(byte value) {
         ensureNotClosed();
 
         if (_writePos == 0) {
@@ -628,44 +641,141 @@ public class BufferedStream extends Stream {
 
         // The buffer is either empty or we have a buffered READ.
 
-        if (_readLen - _readPos > 0 && origin == SeekOrigin.Current) {
+        if (_readLen > 0) {
+
+            // _stream is at the end of the READ data, so the buffer starts at:
+            if (_bufferOrigin < 0)
+                _bufferOrigin = _stream.getPosition() - _readLen;
+
+            long newPos;
+            switch (origin) {
+            case Begin:
+                newPos = offset;
+                break;
+            case Current:
+                newPos = _bufferOrigin + _readPos + offset;
+                break;
+            case End:
+                newPos = _stream.getLength() + offset;
+                break;
+            default:
+                throw new IllegalArgumentException("origin: " + origin);
+            }
+
+            // If the seek destination is still within the data currently in the buffer,
+            // only the read pointer is moved, _stream is not touched.
+            if (_bufferOrigin <= newPos && newPos <= _bufferOrigin + _readLen) {
+                _readPos = (int) (newPos - _bufferOrigin);
+                return newPos;
+            }
 
-            // If we have bytes in the READ buffer, adjust the seek offset to account for
-            // the resulting difference
-            // between this stream's position and the underlying stream's position.
-            offset -= (_readLen - _readPos);
+            // Otherwise loose the buffer.
+            _readPos = _readLen = 0;
+            _bufferOrigin = -1;
+            return _stream.seek(newPos, SeekOrigin.Begin);
         }
 
-        long oldPos = getPosition();
-        assert oldPos == _stream.getPosition() + (_readPos - _readLen);
+        return _stream.seek(offset, origin);
+    }
+
+    /**
+     * Returns the next byte without consuming it.
+     *
+     * @return the byte (0 ~ 255), or -1 if the end of the stream has been reached.
+     */
+    public int peek() {
+        ensureNotClosed();
+        ensureCanRead();
+
+        if (_readPos == _readLen && fillForPeek(1) == 0)
+            return -1;
+
+        return _buffer[_readPos] & 0xff;
+    }
+
+    /**
+     * Copies the next bytes without consuming them, the underlying stream is
+     * read as needed to buffer {@code count} bytes.
+     *
+     * @param count must not be larger than the buffer size
+     * @return the number of bytes copied, less than {@code count} only at the end of the stream
+     */
+    public int peek(byte[] array, int offset, int count) {
+        if (array == null)
+            throw new NullPointerException("array");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset is negative");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count is negative");
+        if (array.length - offset < count)
+            throw new IllegalArgumentException("count is larger than length after offset");
+        if (count > _bufferSize)
+            throw new IllegalArgumentException("count is larger than the buffer size: " + _bufferSize);
+
+        ensureNotClosed();
+        ensureCanRead();
 
-        long newPos = _stream.seek(offset, origin);
+        int available = _readLen - _readPos;
+        if (available < count)
+            available = fillForPeek(count);
 
-        // If the seek destination is still within the data currently in the buffer, we
-        // want to keep the buffer data and continue using it.
-        // Otherwise we will throw away the buffer. This can only happen on READ, as we
-        // flushed WRITE data above.
+        int n = Math.min(available, count);
+        if (n > 0)
+            System.arraycopy(_buffer, _readPos, array, offset, n);
+        return n;
+    }
 
-        // The offset of the new/updated seek pointer within _buffer:
-        _readPos = (int) (newPos - (oldPos - _readPos));
+    /**
+     * Moves the unread READ data to the head of the buffer and reads _stream
+     * until {@code count} bytes are buffered or the end of the stream.
+     *
+     * @return the number of bytes available in the buffer
+     */
+    private int fillForPeek(int count) {
+        if (_writePos > 0)
+            flushWrite();
 
-        // If the offset of the updated seek pointer in the buffer is still legal, then
-        // we can keep using the buffer:
-        if (0 <= _readPos && _readPos < _readLen) {
+        EnsureBufferAllocated();
+        // the buffer is empty, it starts where _stream is
+        if (_readLen == 0)
+            _bufferOrigin = _stream.canSeek() ? _stream.getPosition() : -1;
+        int available = _readLen - _readPos;
+        if (_readPos > 0) {
+            System.arraycopy(_buffer, _readPos, _buffer, 0, available);
+            if (_bufferOrigin >= 0)
+                _bufferOrigin += _readPos;
+            _readPos = 0;
+            _readLen = available;
+        }
+        while (_readLen < count) {
+            int n = _stream.read(_buffer, _readLen, _bufferSize - _readLen);
+            if (n <= 0)
+                break;
+            _readLen += n;
+        }
+        return _readLen - _readPos;
+    }
 
-            // Adjust the seek pointer of the underlying stream to reflect the amount of
-            // useful bytes in the read buffer:
-            _stream.seek(_readLen - _readPos, SeekOrigin.Current);
+    /**
+     * Steps the position back by {@code count} bytes, so that they are read
+     * again. Within the READ buffer only the read pointer is moved, otherwise
+     * the underlying stream is sought.
+     *
+     * @throws UnsupportedOperationException the bytes are not in the buffer and the stream can not seek
+     */
+    public void unread(int count) {
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count is negative");
 
-        } else {
-            // The offset of the updated seek pointer is not a legal offset. Loose the
-            // buffer.
+        ensureNotClosed();
 
-            _readPos = _readLen = 0;
+        if (_writePos == 0 && count <= _readPos) {
+            _readPos -= count;
+            return;
         }
 
-        assert newPos == getPosition() : "newPos (=" + newPos + ") == Position (=" + getPosition() + ")";
-        return newPos;
+        ensureCanSeek();
+        seek(-count, SeekOrigin.Current);
     }
 
     public void setLength(long value) {
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+/**
+ * CachingStream.
+ * <p>
+ * Reads a seekable stream by fixed size blocks through a {@link BlockCache},
+ * so that reading the same region again, e.g. walking the same metadata
+ * twice, does not touch the underlying stream. Writes go to the underlying
+ * stream directly and invalidate the blocks they touch.
+ * <p>
+ * The underlying stream must not be modified except through this stream while
+ * its blocks are cached. Closing this closes the underlying stream and drops
+ * its blocks from the cache.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class CachingStream extends Stream {
+
+    /** 16KB */
+    public static final int DefaultBlockSize = 16 * 1024;
+
+    private Stream stream;
+
+    private final int blockSize;
+
+    private final BlockCache cache;
+
+    private long position;
+
+    /** cached not to ask a slow stream */
+    private long length;
+
+    /** uses the shared cache */
+    public CachingStream(Stream stream) {
+        this(stream, DefaultBlockSize, BlockCache.getShared());
+    }
+
+    /**
+     * @param stream must be seekable
+     */
+    public CachingStream(Stream stream, int blockSize, BlockCache cache) {
+        if (stream == null)
+            throw new NullPointerException("stream");
+        if (cache == null)
+            throw new NullPointerException("cache");
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("blockSize is not positive");
+        if (!stream.canSeek())
+            throw new IllegalArgumentException("stream is not seekable");
+
+        this.stream = stream;
+        this.blockSize = blockSize;
+        this.cache = cache;
+        this.position = stream.getPosition();
+        this.length = stream.getLength();
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public BlockCache getCache() {
+        return cache;
+    }
+
+    private void ensureNotClosed() {
+        if (stream == null)
+            throw new dotnet4j.io.IOException("stream is closed");
+    }
+
+    @Override
+    public boolean canRead() {
+        return stream != null && stream.canRead();
+    }
+
+    @Override
+    public boolean canSeek() {
+        return stream != null;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return stream != null && stream.canWrite();
+    }
+
+    @Override
+    public long getLength() {
+        ensureNotClosed();
+        return length;
+    }
+
+    @Override
+    public long getPosition() {
+        ensureNotClosed();
+        return position;
+    }
+
+    @Override
+    public void setPosition(long value) {
+        if (value < 0)
+            throw new IndexOutOfBoundsException("value is negative");
+        ensureNotClosed();
+
+        position = value;
+    }
+
+    @Override
+    public long seek(long offset, SeekOrigin origin) {
+        ensureNotClosed();
+
+        long newPosition;
+        switch (origin) {
+        case Begin:
+            newPosition = offset;
+            break;
+        case Current:
+            newPosition = position + offset;
+            break;
+        case End:
+            newPosition = length + offset;
+            break;
+        default:
+            throw new IllegalArgumentException("origin: " + origin);
+        }
+        if (newPosition < 0)
+            throw new dotnet4j.io.IOException("invalid value");
+
+        position = newPosition;
+        return position;
+    }
+
+    /** all the blocks of the stream are invalidated */
+    @Override
+    public void setLength(long value) {
+        ensureNotClosed();
+
+        stream.setLength(value);
+        cache.invalidate(stream);
+        length = value;
+    }
+
+    @Override
+    public void flush() {
+        ensureNotClosed();
+        stream.flush();
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        int n = readAt(position, buffer, offset, count);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int readAt(long position, byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count");
+        if (buffer.length - offset < count)
+            throw new IllegalArgumentException("buffer.length - offset <= count");
+        if (position < 0)
+            throw new IndexOutOfBoundsException("position is negative");
+        ensureNotClosed();
+        if (!stream.canRead())
+            throw new UnsupportedOperationException("stream is not readable");
+
+        int total = 0;
+        while (total < count) {
+            long index = position / blockSize;
+            int blockOffset = (int) (position % blockSize);
+            byte[] block = block(index);
+            int n = Math.min(block.length - blockOffset, count - total);
+            if (n <= 0)
+                break;
+            System.arraycopy(block, blockOffset, buffer, offset + total, n);
+            total += n;
+            position += n;
+            if (block.length < blockSize)
+                break;
+        }
+        return total;
+    }
+
+    /** @return the block from the cache, or loaded from the stream. shorter than the block size at the end */
+    private byte[] block(long index) {
+        byte[] block = cache.get(stream, blockSize, index);
+        if (block != null)
+            return block;
+
+        long start = index * blockSize;
+        int size = (int) Math.max(0, Math.min(blockSize, length - start));
+        block = new byte[size];
+        int n = 0;
+        while (n < size) {
+            int r = stream.readAt(start + n, block, n, size - n);
+            if (r <= 0)
+                break;
+            n += r;
+        }
+        if (n < size) {
+            byte[] shorter = new byte[n];
+            System.arraycopy(block, 0, shorter, 0, n);
+            block = shorter;
+        }
+        if (block.length > 0)
+            cache.put(stream, blockSize, index, block);
+        return block;
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int count) {
+        writeAt(position, buffer, offset, count);
+        position += count;
+    }
+
+    /** writes through to the stream and invalidates the touched blocks */
+    @Override
+    public void writeAt(long position, byte[] buffer, int offset, int count) {
+        ensureNotClosed();
+
+        stream.writeAt(position, buffer, offset, count);
+        if (count > 0) {
+            for (long i = position / blockSize; i <= (position + count - 1) / blockSize; i++) {
+                cache.invalidate(stream, blockSize, i);
+            }
+            if (position + count > length) {
+                // the last block was short
+                if (length > 0)
+                    cache.invalidate(stream, blockSize, (length - 1) / blockSize);
+                length = position + count;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        if (stream == null)
+            return;
+        try {
+            cache.invalidate(stream);
+            stream.close();
+        } finally {
+            stream = null;
+        }
+    }
+}
+
+/* */
@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * ChunkedMemoryStream.
+ * <p>
+ * A Stream whose backing store is a list of fixed size chunks in memory.
+ * Unlike {@link MemoryStream}, positions and the length are {@code long}, so
+ * it can be larger than 2GB, and growing never copies the existing data.
+ * Chunks are allocated on the first write into them, a region which has never
+ * been written (e.g. after {@link #setLength(long)}) is read as zero and takes
+ * no memory.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class ChunkedMemoryStream extends Stream {
+
+    /** 64KB */
+    public static final int DefaultChunkSize = 64 * 1024;
+
+    /** max length of {@link #toArray()} */
+    private static final int MaxArrayLength = Integer.MAX_VALUE - 8;
+
+    private static final byte[] zeros = new byte[DefaultChunkSize];
+
+    private final int chunkSize;
+
+    /**
+     * null elements are not allocated yet and are read as zero.
+     * bytes beyond {@link #length} in the allocated chunks are always zero.
+     */
+    private final List<byte[]> chunks = new ArrayList<>();
+
+    private long length;
+
+    private long position;
+
+    private boolean closed;
+
+    public ChunkedMemoryStream() {
+        this(DefaultChunkSize);
+    }
+
+    /**
+     * @param chunkSize the size of each chunk
+     */
+    public ChunkedMemoryStream(int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("chunkSize is not positive");
+
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Allocates a new chunk, subclasses may supply chunks from a pool.
+     *
+     * @return a zero filled array of {@link #getChunkSize()}
+     */
+    protected byte[] allocateChunk() {
+        return new byte[chunkSize];
+    }
+
+    /**
+     * Called when a chunk is not used any more (truncation or close),
+     * subclasses may return the chunk to a pool.
+     */
+    protected void releaseChunk(byte[] chunk) {
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private void ensureNotClosed() {
+        if (closed)
+            throw new dotnet4j.io.IOException("object disposed");
+    }
+
+    /** @return the chunk, allocated if it has not been */
+    private byte[] chunkForWrite(int index) {
+        while (chunks.size() <= index) {
+            chunks.add(null);
+        }
+        byte[] chunk = chunks.get(index);
+        if (chunk == null) {
+            chunk = allocateChunk();
+            chunks.set(index, chunk);
+        }
+        return chunk;
+    }
+
+    /** @return the chunk, or null if it is not allocated */
+    private byte[] chunkForRead(int index) {
+        return index < chunks.size() ? chunks.get(index) : null;
+    }
+
+    @Override
+    public boolean canRead() {
+        return !closed;
+    }
+
+    @Override
+    public boolean canSeek() {
+        return !closed;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return !closed;
+    }
+
+    @Override
+    public long getLength() {
+        ensureNotClosed();
+        return length;
+    }
+
+    @Override
+    public long getPosition() {
+        ensureNotClosed();
+        return position;
+    }
+
+    @Override
+    public void setPosition(long value) {
+        if (value < 0)
+            throw new IndexOutOfBoundsException("value is negative");
+        ensureNotClosed();
+
+        position = value;
+    }
+
+    @Override
+    public long seek(long offset, SeekOrigin origin) {
+        ensureNotClosed();
+
+        long newPosition;
+        switch (origin) {
+        case Begin:
+            newPosition = offset;
+            break;
+        case Current:
+            newPosition = position + offset;
+            break;
+        case End:
+            newPosition = length + offset;
+            break;
+        default:
+            throw new IllegalArgumentException("origin: " + origin);
+        }
+        if (newPosition < 0)
+            throw new dotnet4j.io.IOException("invalid value");
+
+        position = newPosition;
+        return position;
+    }
+
+    /** only the chunks beyond the new length are released, the others are kept as they are */
+    @Override
+    public void setLength(long value) {
+        if (value < 0)
+            throw new IndexOutOfBoundsException("value is negative");
+        ensureNotClosed();
+
+        if (value < length) {
+            int lastIndex = (int) (value / chunkSize);
+            int lastOffset = (int) (value % chunkSize);
+            byte[] last = chunkForRead(lastIndex);
+            if (last != null)
+                Arrays.fill(last, lastOffset, chunkSize, (byte) 0);
+            int keep = lastOffset == 0 ? lastIndex : lastIndex + 1;
+            while (chunks.size() > keep) {
+                byte[] chunk = chunks.remove(chunks.size() - 1);
+                if (chunk != null)
+                    releaseChunk(chunk);
+            }
+        }
+        length = value;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        int n = readAt(position, buffer, offset, count);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int readAt(long position, byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count");
+        if (buffer.length - offset < count)
+            throw new IllegalArgumentException("buffer.length - offset <= count");
+        if (position < 0)
+            throw new IndexOutOfBoundsException("position is negative");
+        ensureNotClosed();
+
+        long available = length - position;
+        if (available <= 0)
+            return 0;
+        int n = (int) Math.min(available, count);
+
+        int index = (int) (position / chunkSize);
+        int chunkOffset = (int) (position % chunkSize);
+        int remaining = n;
+        while (remaining > 0) {
+            int size = Math.min(remaining, chunkSize - chunkOffset);
+            byte[] chunk = chunkForRead(index);
+            if (chunk != null)
+                System.arraycopy(chunk, chunkOffset, buffer, offset, size);
+            else
+                Arrays.fill(buffer, offset, offset + size, (byte) 0);
+            offset += size;
+            remaining -= size;
+            index++;
+            chunkOffset = 0;
+        }
+        return n;
+    }
+
+    @Override
+    public int readByte() {
+        ensureNotClosed();
+
+        if (position >= length)
+            return -1;
+        byte[] chunk = chunkForRead((int) (position / chunkSize));
+        int b = chunk != null ? chunk[(int) (position % chunkSize)] & 0xff : 0;
+        position++;
+        return b;
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int count) {
+        writeAt(position, buffer, offset, count);
+        position += count;
+    }
+
+    @Override
+    public void writeAt(long position, byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count");
+        if (buffer.length - offset < count)
+            throw new IllegalArgumentException("buffer.length - offset <= count");
+        if (position < 0)
+            throw new IndexOutOfBoundsException("position is negative");
+        ensureNotClosed();
+
+        int index = (int) (position / chunkSize);
+        int chunkOffset = (int) (position % chunkSize);
+        int remaining = count;
+        while (remaining > 0) {
+            int size = Math.min(remaining, chunkSize - chunkOffset);
+            System.arraycopy(buffer, offset, chunkForWrite(index), chunkOffset, size);
+            offset += size;
+            remaining -= size;
+            index++;
+            chunkOffset = 0;
+        }
+        if (position + count > length)
+            length = position + count;
+    }
+
+    @Override
+    public void writeByte(byte value) {
+        ensureNotClosed();
+
+        chunkForWrite((int) (position / chunkSize))[(int) (position % chunkSize)] = value;
+        position++;
+        if (position > length)
+            length = position;
+    }
+
+    /** the chunks are written to the destination directly, without a temporary buffer */
+    @Override
+    public void copyTo(Stream destination, int bufferSize) {
+        if (destination == null)
+            throw new NullPointerException("destination");
+        ensureNotClosed();
+        if (!destination.canWrite())
+            throw new UnsupportedOperationException("destination is not writeable");
+
+        while (position < length) {
+            int index = (int) (position / chunkSize);
+            int chunkOffset = (int) (position % chunkSize);
+            int size = (int) Math.min(length - position, chunkSize - chunkOffset);
+            byte[] chunk = chunkForRead(index);
+            if (chunk != null) {
+                destination.write(chunk, chunkOffset, size);
+            } else {
+                for (int rest = size; rest > 0; rest -= zeros.length) {
+                    destination.write(zeros, 0, Math.min(rest, zeros.length));
+                }
+            }
+            position += size;
+        }
+    }
+
+    /** Writes the whole content of this stream to another stream. */
+    public void writeTo(Stream stream) {
+        if (stream == null)
+            throw new NullPointerException("stream");
+        ensureNotClosed();
+
+        long saved = position;
+        position = 0;
+        try {
+            copyTo(stream);
+        } finally {
+            position = saved;
+        }
+    }
+
+    /**
+     * @throws dotnet4j.io.IOException the length is too large for an array
+     */
+    public byte[] toArray() {
+        ensureNotClosed();
+        if (length > MaxArrayLength)
+            throw new dotnet4j.io.IOException("stream is too large for an array: " + length);
+
+        byte[] result = new byte[(int) length];
+        readAt(0, result, 0, result.length);
+        return result;
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        if (closed)
+            return;
+        for (byte[] chunk : chunks) {
+            if (chunk != null)
+                releaseChunk(chunk);
+        }
+        chunks.clear();
+        closed = true;
+    }
+}
+
+/* */
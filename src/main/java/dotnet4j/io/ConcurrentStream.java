@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.concurrent.locks.StampedLock;
+
+
+/**
+ * ConcurrentStream.
+ * <p>
+ * A thread safe wrapper of a seekable stream. Each thread has its own
+ * position, and reads and writes are mapped onto
+ * {@link Stream#readAt(long, byte[], int, int)} and
+ * {@link Stream#writeAt(long, byte[], int, int)} of the wrapped stream, so
+ * threads do not wait for each other as long as the wrapped stream's
+ * positional methods are thread safe (e.g. {@link FileStream},
+ * {@link UnmanagedMemoryStream}, which serializes only the writes extending
+ * the length).
+ * <p>
+ * I/O takes the shared side of a lock, operations which change the stream
+ * itself ({@link #setLength(long)}, {@link #flush()}, {@link #close()}) take
+ * the exclusive side.
+ * <p>
+ * A new thread starts at position 0.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class ConcurrentStream extends Stream {
+
+    /** per thread state */
+    private static class Cursor {
+        long position;
+        final byte[] oneByte = new byte[1];
+    }
+
+    private final Stream stream;
+
+    private final StampedLock lock = new StampedLock();
+
+    private final ThreadLocal<Cursor> cursor = ThreadLocal.withInitial(Cursor::new);
+
+    private volatile boolean closed;
+
+    /**
+     * @param stream must be seekable
+     */
+    public ConcurrentStream(Stream stream) {
+        if (stream == null)
+            throw new NullPointerException("stream");
+        if (!stream.canSeek())
+            throw new IllegalArgumentException("stream is not seekable");
+
+        this.stream = stream;
+    }
+
+    private void ensureNotClosed() {
+        if (closed)
+            throw new dotnet4j.io.IOException("object disposed");
+    }
+
+    @Override
+    public boolean canRead() {
+        return !closed && stream.canRead();
+    }
+
+    @Override
+    public boolean canSeek() {
+        return !closed;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return !closed && stream.canWrite();
+    }
+
+    @Override
+    public long getLength() {
+        long stamp = lock.readLock();
+        try {
+            ensureNotClosed();
+            return stream.getLength();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** @return the position of the calling thread */
+    @Override
+    public long getPosition() {
+        ensureNotClosed();
+        return cursor.get().position;
+    }
+
+    /** sets the position of the calling thread */
+    @Override
+    public void setPosition(long value) {
+        if (value < 0)
+            throw new IndexOutOfBoundsException("value is negative");
+        ensureNotClosed();
+
+        cursor.get().position = value;
+    }
+
+    /** seeks the position of the calling thread */
+    @Override
+    public long seek(long offset, SeekOrigin origin) {
+        ensureNotClosed();
+
+        Cursor cursor = this.cursor.get();
+        long newPosition;
+        switch (origin) {
+        case Begin:
+            newPosition = offset;
+            break;
+        case Current:
+            newPosition = cursor.position + offset;
+            break;
+        case End:
+            newPosition = getLength() + offset;
+            break;
+        default:
+            throw new IllegalArgumentException("origin: " + origin);
+        }
+        if (newPosition < 0)
+            throw new dotnet4j.io.IOException("invalid value");
+
+        cursor.position = newPosition;
+        return newPosition;
+    }
+
+    @Override
+    public void setLength(long value) {
+        long stamp = lock.writeLock();
+        try {
+            ensureNotClosed();
+            stream.setLength(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void flush() {
+        long stamp = lock.writeLock();
+        try {
+            ensureNotClosed();
+            stream.flush();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        Cursor cursor = this.cursor.get();
+        int n = readAt(cursor.position, buffer, offset, count);
+        cursor.position += n;
+        return n;
+    }
+
+    @Override
+    public int readByte() {
+        Cursor cursor = this.cursor.get();
+        if (readAt(cursor.position, cursor.oneByte, 0, 1) == 0)
+            return -1;
+        cursor.position++;
+        return cursor.oneByte[0] & 0xff;
+    }
+
+    @Override
+    public int readAt(long position, byte[] buffer, int offset, int count) {
+        long stamp = lock.readLock();
+        try {
+            ensureNotClosed();
+            return stream.readAt(position, buffer, offset, count);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int count) {
+        Cursor cursor = this.cursor.get();
+        writeAt(cursor.position, buffer, offset, count);
+        cursor.position += count;
+    }
+
+    @Override
+    public void writeByte(byte value) {
+        Cursor cursor = this.cursor.get();
+        cursor.oneByte[0] = value;
+        writeAt(cursor.position, cursor.oneByte, 0, 1);
+        cursor.position++;
+    }
+
+    @Override
+    public void writeAt(long position, byte[] buffer, int offset, int count) {
+        long stamp = lock.readLock();
+        try {
+            ensureNotClosed();
+            stream.writeAt(position, buffer, offset, count);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** waits for the running operations of the other threads, then closes the wrapped stream */
+    @Override
+    public void close() throws java.io.IOException {
+        long stamp = lock.writeLock();
+        try {
+            if (closed)
+                return;
+            closed = true;
+            stream.close();
+        } finally {
+            lock.unlockWrite(stamp);
+            cursor.remove();
+        }
+    }
+}
+
+/* */
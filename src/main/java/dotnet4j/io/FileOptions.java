@@ -6,6 +6,9 @@
 
 package dotnet4j.io;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.stream.Collectors;
 
 /**
  * FileOptions.
@@ -20,7 +23,9 @@ public enum FileOptions {
     None(0),
     RandomAccess(268435456),
     SequentialScan(134217728),
-    WriteThrough(-2147483648);
+    WriteThrough(-2147483648),
+    /** FILE_FLAG_NO_BUFFERING, not in the .NET enum but accepted as (FileOptions) 0x20000000 */
+    NoBuffering(0x20000000);
 
     private int value;
 
@@ -31,6 +36,17 @@ public enum FileOptions {
     private FileOptions(int value) {
         this.value = value;
     }
+
+    /** {@link #None} is never included */
+    public static EnumSet<FileOptions> valueOf(int value) {
+        return Arrays.stream(values())
+                .filter(v -> v != None && (value & v.value) != 0)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(FileOptions.class)));
+    }
+
+    public static int valueOf(EnumSet<FileOptions> options) {
+        return options.stream().mapToInt(FileOptions::getValue).reduce(0, (a, b) -> a | b);
+    }
 }
 
 /* */
@@ -1,18 +1,97 @@
 package dotnet4j.io;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
 import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import dotnet4j.buffers.ArrayPool;
 
 /**
  * Created by FT on 27.11.14.
  */
 public class FileStream extends Stream
 {
-    private RandomAccessFile raf;
+    /** {@code com.sun.nio.file.ExtendedOpenOption.DIRECT}, null when the runtime does not have it (before java 10) */
+    private static final OpenOption DIRECT;
+    /** {@code ByteBuffer#alignedSlice(int)}, null before java 9 */
+    private static final Method alignedSlice;
+    /** {@code FileStore#getBlockSize()}, null before java 10 */
+    private static final Method getBlockSize;
+    /** when the block size is unknown */
+    private static final int DefaultAlignment = 4096;
+
+    static {
+        OpenOption direct = null;
+        try {
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            OpenOption o = (OpenOption) Enum.valueOf((Class) Class.forName("com.sun.nio.file.ExtendedOpenOption"), "DIRECT");
+            direct = o;
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            // not supported
+        }
+        DIRECT = direct;
+        alignedSlice = methodOrNull(ByteBuffer.class, "alignedSlice", int.class);
+        getBlockSize = methodOrNull(FileStore.class, "getBlockSize");
+    }
+
+    private static Method methodOrNull(Class<?> c, String name, Class<?>... types) {
+        try {
+            return c.getMethod(name, types);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
     private FileChannel channel;
+    /** the alignment of positions, sizes and buffers for direct I/O, 0 when not direct */
+    private int alignment;
+    private boolean writeThrough;
+    /** for {@link #setLength(long)} */
+    private ExtendMode extendMode = ExtendMode.Sparse;
+    /** the chunk size of writing zeros for {@link ExtendMode#Preallocated}, 1MB */
+    private static final int ZeroChunkSize = 1024 * 1024;
+    /** the source of {@link #writeZeros(long, long)} */
+    private static final byte[] zeroBytes = new byte[8192];
+    /** for {@link #readAsync} and {@link #writeAsync}, opened on the first use */
+    private AsynchronousFileChannel asyncChannel;
+    /** the options of the channel but the ones which create, truncate or delete the file */
+    private Set<OpenOption> asyncOptions;
+    /** for {@link #readByte()} and {@link #writeByte(byte)} */
+    private final ByteBuffer oneByte = ByteBuffer.allocate(1);
+    /** the internal buffer, null when the stream is not buffered */
+    private byte[] buffer;
+    private int bufferSize;
+    /** read position in the buffer, the channel position is at the end of the read data */
+    private int readPos;
+    private int readLen;
+    /** write position in the buffer, the channel position is at the start of the written data */
+    private int writePos;
+    /** the channel position, kept here not to ask the channel each time */
+    private long filePosition;
+    /** for {@link #flush(boolean)} */
+    private volatile boolean groupCommit;
+    private final Object forceLock = new Object();
+    /** the last ticket taken, guarded by forceLock */
+    private long forceRequested;
+    /** the last ticket covered by a completed force, guarded by forceLock */
+    private long forceCompleted;
+    /** a leader is forcing the channel, guarded by forceLock */
+    private boolean forcing;
     private FileMode myMode;
     private FileAccess myAccess;
     private FileShare myShare;
@@ -30,69 +109,273 @@ public class FileStream extends Stream
 
     public FileStream(String path, FileMode mode, FileAccess access, FileShare share)
     {
+        this(path, mode, access, share, 0, EnumSet.noneOf(FileOptions.class));
+    }
+
+    public FileStream(String path,
+            FileMode mode,
+            FileAccess access,
+            FileShare share,
+            int bufferSize,
+            FileOptions options) {
+        this(path, mode, access, share, bufferSize, options == null || options == FileOptions.None ? EnumSet.noneOf(FileOptions.class) : EnumSet.of(options));
+    }
+
+    /**
+     * @param useAsync ignored, the async methods are always available
+     */
+    public FileStream(String path,
+            FileMode mode,
+            FileAccess access,
+            FileShare share,
+            int bufferSize,
+            boolean useAsync,
+            FileOptions options) {
+        this(path, mode, access, share, bufferSize, options);
+    }
+
+    /**
+     * <ul>
+     * <li>{@link FileOptions#WriteThrough} opens the file with {@link StandardOpenOption#DSYNC}</li>
+     * <li>{@link FileOptions#NoBuffering} opens the file for direct I/O, bypassing the
+     * page cache. The internal buffer is not used and every position, size and
+     * buffer must be aligned to {@link #getAlignment()}, see {@link #allocateAligned(int, int)}</li>
+     * <li>{@link FileOptions#DeleteOnClose} opens the file with {@link StandardOpenOption#DELETE_ON_CLOSE}</li>
+     * </ul>
+     * the others are ignored.
+     *
+     * @param bufferSize 0 or 1 means no buffering
+     * @throws UnsupportedOperationException {@link FileOptions#NoBuffering} is specified
+     *             but the runtime does not support direct I/O
+     */
+    public FileStream(String path,
+            FileMode mode,
+            FileAccess access,
+            FileShare share,
+            int bufferSize,
+            EnumSet<FileOptions> options) {
         myPath = path;
         myMode = mode;
         myAccess = access;
         myShare = share;
 
-        String rafMode = "";
-        switch (access)
-        {
-
-            case Read:
-                rafMode = "r";
+        Set<OpenOption> openOptions = new HashSet<>();
+        if (access != FileAccess.Write)
+            openOptions.add(StandardOpenOption.READ);
+        if (access != FileAccess.Read)
+            openOptions.add(StandardOpenOption.WRITE);
+        switch (mode) {
+            case CreateNew:
+                openOptions.add(StandardOpenOption.CREATE_NEW);
+                break;
+            case Create:
+                openOptions.add(StandardOpenOption.CREATE);
+                openOptions.add(StandardOpenOption.TRUNCATE_EXISTING);
                 break;
-            case Write:
-                rafMode = "rw";
+            case OpenOrCreate:
+            case Append:
+                openOptions.add(StandardOpenOption.CREATE);
                 break;
-            case ReadWrite:
-                rafMode = "rw";
+            case Truncate:
+                openOptions.add(StandardOpenOption.TRUNCATE_EXISTING);
+                break;
+            case Open:
                 break;
         }
-        try
-        {
-            java.io.File f = new java.io.File(path);
-            if (mode == FileMode.Create || mode == FileMode.CreateNew || mode == FileMode.OpenOrCreate)
-            {
-                if (!f.exists())
-                {
-                    f.createNewFile();
+        if (mode != FileMode.Open && mode != FileMode.OpenOrCreate && access == FileAccess.Read)
+            throw new IllegalArgumentException("mode " + mode + " requires write access");
+
+        writeThrough = options.contains(FileOptions.WriteThrough);
+        if (writeThrough)
+            openOptions.add(StandardOpenOption.DSYNC);
+        if (options.contains(FileOptions.DeleteOnClose))
+            openOptions.add(StandardOpenOption.DELETE_ON_CLOSE);
+        if (options.contains(FileOptions.NoBuffering)) {
+            if (DIRECT == null)
+                throw new UnsupportedOperationException("direct I/O is not supported on this runtime");
+            openOptions.add(DIRECT);
+        }
+        asyncOptions = new HashSet<>(openOptions);
+        asyncOptions.removeAll(Arrays.asList(StandardOpenOption.CREATE, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE));
+
+        try {
+            java.nio.file.Path p = Paths.get(path);
+            if (mode == FileMode.OpenOrCreate && access == FileAccess.Read && !Files.exists(p)) {
+                // CREATE is ignored without WRITE
+                try {
+                    Files.createFile(p);
+                } catch (FileAlreadyExistsException e) {
+                    // created by someone else, fine
                 }
             }
-            raf = new RandomAccessFile(path,rafMode);
-            channel = raf.getChannel();
-
-        } catch (FileNotFoundException e) {
+            channel = FileChannel.open(p, openOptions);
+            if (openOptions.contains(DIRECT)) {
+                alignment = blockSize(Files.getFileStore(p));
+            } else {
+                setBufferSize(bufferSize);
+            }
+            if (mode == FileMode.Append) {
+                filePosition = channel.size();
+                channel.position(filePosition);
+            }
+        } catch (NoSuchFileException e) {
             throw new dotnet4j.io.FileNotFoundException(e);
+        } catch (FileAlreadyExistsException e) {
+            throw new dotnet4j.io.IOException(e);
         } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException f) {
+                    e.addSuppressed(f);
+                }
+            }
             throw new dotnet4j.io.IOException(e);
         }
     }
 
-    public FileStream(String path,
-            FileMode mode,
-            FileAccess access,
-            FileShare share,
-            int bufferSize,
-            FileOptions options) {
-        this(path, mode, access, share);
-        if (options == FileOptions.DeleteOnClose) {
-            java.io.File f = new java.io.File(path);
-            f.deleteOnExit();
+    private static int blockSize(FileStore store) {
+        if (getBlockSize != null) {
+            try {
+                long size = (Long) getBlockSize.invoke(store);
+                if (size > 0 && size <= Integer.MAX_VALUE)
+                    return (int) size;
+            } catch (ReflectiveOperationException e) {
+                // use the default
+            }
         }
-        // TODO bufferSize
+        return DefaultAlignment;
     }
 
-    /** */
-    public FileStream(String path,
-            FileMode mode,
-            FileAccess access,
-            FileShare share,
-            int bufferSize,
-            boolean b,
-            FileOptions options) {
-        this(path, mode, access, share);
-        // TODO Auto-generated constructor stub
+    /**
+     * @return the alignment required by direct I/O ({@link FileOptions#NoBuffering}),
+     *         1 when the stream is not opened for direct I/O
+     */
+    public int getAlignment() {
+        return alignment == 0 ? 1 : alignment;
+    }
+
+    /** whether this is opened with {@link FileOptions#WriteThrough} */
+    public boolean isWriteThrough() {
+        return writeThrough;
+    }
+
+    /**
+     * Allocates a direct buffer whose address is aligned, for direct I/O
+     * ({@link FileOptions#NoBuffering}).
+     *
+     * @param capacity the capacity of the result
+     * @param alignment a power of 2, e.g. {@link #getAlignment()}
+     * @throws UnsupportedOperationException the runtime can not align buffers (before java 9)
+     */
+    public static ByteBuffer allocateAligned(int capacity, int alignment) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity is negative");
+        if (alignment <= 0 || (alignment & (alignment - 1)) != 0)
+            throw new IllegalArgumentException("alignment is not a power of 2: " + alignment);
+        if (alignedSlice == null)
+            throw new UnsupportedOperationException("aligned buffers are not supported on this runtime");
+
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(capacity + alignment - 1);
+            ByteBuffer aligned = (ByteBuffer) alignedSlice.invoke(buffer, alignment);
+            aligned.limit(capacity);
+            return aligned.slice();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Fails early with a clear message for direct I/O, the position and the
+     * size must be multiples of the alignment.
+     */
+    private void checkAligned(long position, int count) {
+        if (alignment == 0)
+            return;
+        if (position % alignment != 0)
+            throw new dotnet4j.io.IOException("position " + position + " is not aligned to " + alignment + " for direct I/O");
+        if (count % alignment != 0)
+            throw new dotnet4j.io.IOException("size " + count + " is not a multiple of " + alignment + " for direct I/O");
+    }
+
+    /**
+     * @param bufferSize 0 or 1 means no buffering
+     */
+    private void setBufferSize(int bufferSize) {
+        if (bufferSize < 0)
+            throw new IllegalArgumentException("bufferSize is negative");
+        if (bufferSize > 1)
+            this.bufferSize = bufferSize;
+    }
+
+    /** @return the size of the internal buffer, 0 when the stream is not buffered */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /** the buffer is allocated on the first use, so unused streams cost nothing */
+    private byte[] buffer() {
+        if (buffer == null)
+            buffer = ArrayPool.getShared().rent(bufferSize);
+        return buffer;
+    }
+
+    /** writes the pending bytes in the buffer to the channel */
+    private void flushWrite() {
+        if (writePos > 0) {
+            channelWrite(ByteBuffer.wrap(buffer, 0, writePos));
+            writePos = 0;
+        }
+    }
+
+    /** discards the read buffer, the channel position is moved back to the logical position */
+    private void flushRead() {
+        if (readLen > 0) {
+            try {
+                if (readPos < readLen) {
+                    filePosition -= readLen - readPos;
+                    channel.position(filePosition);
+                }
+            } catch (IOException e) {
+                throw new dotnet4j.io.IOException(e);
+            }
+            readPos = 0;
+            readLen = 0;
+        }
+    }
+
+    /** after this, the channel position is the logical position and the buffer is empty */
+    private void flushBuffer() {
+        flushWrite();
+        flushRead();
+    }
+
+    private int channelRead(ByteBuffer dst) {
+        try {
+            if (alignment != 0)
+                checkAligned(filePosition, dst.remaining());
+            int m = channel.read(dst);
+            if (m <= 0)
+                return 0;
+            filePosition += m;
+            return m;
+        } catch (IOException e) {
+            throw new dotnet4j.io.IOException(e);
+        }
+    }
+
+    private void channelWrite(ByteBuffer src) {
+        try {
+            if (alignment != 0)
+                checkAligned(filePosition, src.remaining());
+            while (src.hasRemaining()) {
+                filePosition += channel.write(src);
+            }
+        } catch (IOException e) {
+            throw new dotnet4j.io.IOException(e);
+        }
     }
 
     public String getName() {
@@ -128,10 +411,14 @@ public class FileStream extends Stream
         return false;
     }
 
+    /** includes the bytes pending in the write buffer */
     @Override
     public long getLength() {
         try {
-            return channel.size();
+            long size = channel.size();
+            if (writePos > 0)
+                size = Math.max(size, filePosition + writePos);
+            return size;
         } catch (IOException e) {
             throw new dotnet4j.io.IOException(e);
         }
@@ -139,35 +426,89 @@ public class FileStream extends Stream
 
     @Override
     public long getPosition() {
-        try {
-            return channel.position();
-        } catch (IOException e) {
-            throw new dotnet4j.io.IOException(e);
-        }
+        if (channel == null)
+            throw new dotnet4j.io.IOException("stream is closed");
+        return filePosition - readLen + readPos + writePos;
     }
 
     @Override
     public void setPosition(long value)
     {
-        try {
-            channel.position(value);
-        } catch (IOException e) {
-            throw new dotnet4j.io.IOException(e);
-        }
+        seek(value, SeekOrigin.Begin);
     }
 
     @Override
     public void close() {
         try {
-            channel.close();
-            channel = null;
-        } catch (IOException e) {
-            throw new dotnet4j.io.IOException(e);
+            if (channel != null)
+                flushWrite();
+        } finally {
+            try {
+                if (asyncChannel != null) {
+                    asyncChannel.close();
+                    asyncChannel = null;
+                }
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+            } catch (IOException e) {
+                throw new dotnet4j.io.IOException(e);
+            } finally {
+                if (buffer != null) {
+                    ArrayPool.getShared().returnArray(buffer);
+                    buffer = null;
+                }
+                readPos = readLen = writePos = 0;
+            }
         }
     }
 
+    /**
+     * Pushes the buffered bytes to the operating system, the data is not
+     * forced to the device, use {@link #flush(boolean)} for that.
+     */
     @Override
     public void flush() {
+        flushBuffer();
+    }
+
+    /**
+     * @param flushToDisk true: the data is also forced to the device (fsync),
+     *            concurrent calls are coalesced when {@link #isGroupCommit() group commit}
+     *            is enabled
+     */
+    public void flush(boolean flushToDisk) {
+        flush();
+        if (!flushToDisk)
+            return;
+        if (groupCommit)
+            groupForce();
+        else
+            force();
+    }
+
+    /** whether concurrent {@code flush(true)} calls share one force */
+    public boolean isGroupCommit() {
+        return groupCommit;
+    }
+
+    /**
+     * When enabled, a {@code flush(true)} issued while another one is forcing
+     * the channel waits for it and then a single force covers all the waiters,
+     * instead of each of them forcing in turn. Useful when several threads
+     * write by {@link #writeAt(long, byte[], int, int)} and each needs its
+     * data durable.
+     */
+    public void setGroupCommit(boolean groupCommit) {
+        this.groupCommit = groupCommit;
+    }
+
+    /**
+     * Forces the data to the device, with group commit this is called once
+     * for all the coalesced {@link #flush(boolean)} calls.
+     */
+    protected void force() {
         try {
             channel.force(false);
         } catch (IOException e) {
@@ -175,58 +516,490 @@ public class FileStream extends Stream
         }
     }
 
+    /**
+     * Each caller takes a ticket, the caller which finds no force in progress
+     * becomes the leader and forces for all the tickets taken so far, the
+     * others wait until a force which started after their ticket completes.
+     */
+    private void groupForce() {
+        long ticket;
+        boolean interrupted = false;
+        synchronized (forceLock) {
+            ticket = ++forceRequested;
+            while (true) {
+                if (forceCompleted >= ticket) {
+                    if (interrupted)
+                        Thread.currentThread().interrupt();
+                    return;
+                }
+                if (!forcing)
+                    break;
+                try {
+                    forceLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            forcing = true;
+            ticket = forceRequested;
+        }
+        boolean done = false;
+        try {
+            force();
+            done = true;
+        } finally {
+            synchronized (forceLock) {
+                forcing = false;
+                if (done)
+                    forceCompleted = ticket;
+                forceLock.notifyAll();
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * When buffered, small reads are served from the internal buffer which is
+     * filled by one channel read, reads not smaller than the buffer go to the
+     * channel directly.
+     */
     @Override
     public int read(byte[] buffer, int offset, int length) {
-        ByteBuffer tmp = ByteBuffer.wrap(buffer,offset,length);
-        int m = 0;
+        if (bufferSize == 0)
+            return channelRead(ByteBuffer.wrap(buffer, offset, length));
+        if (length == 0)
+            return 0;
+
+        flushWrite();
+        int n = Math.min(readLen - readPos, length);
+        if (n > 0) {
+            System.arraycopy(this.buffer, readPos, buffer, offset, n);
+            readPos += n;
+            if (n == length)
+                return n;
+            offset += n;
+            length -= n;
+        }
+        if (length >= bufferSize) {
+            readPos = readLen = 0;
+            return n + channelRead(ByteBuffer.wrap(buffer, offset, length));
+        }
+        readPos = 0;
+        readLen = channelRead(ByteBuffer.wrap(buffer(), 0, bufferSize));
+        int m = Math.min(readLen, length);
+        System.arraycopy(this.buffer, 0, buffer, offset, m);
+        readPos = m;
+        return n + m;
+    }
+
+    /**
+     * Between two {@link FileStream}s the data is transferred by the channels
+     * (copy_file_range/sendfile on linux), it never comes to the java heap.
+     */
+    @Override
+    public void copyTo(Stream destination, int bufferSize) {
+        if (destination == null || destination.getClass() != FileStream.class || getClass() != FileStream.class) {
+            super.copyTo(destination, bufferSize);
+            return;
+        }
+
+        if (!canRead())
+            throw new UnsupportedOperationException("source is not readable");
+        if (!destination.canWrite())
+            throw new UnsupportedOperationException("destination is not writeable");
+
+        flushBuffer();
+        ((FileStream) destination).flushBuffer();
+        FileChannel target = ((FileStream) destination).channel;
         try {
-            m = channel.read(tmp);
-//Debug.println(m + ", " + offset + ", " + length + " / " + channel.size() + ", " + channel.size() + ", " + channel.position());
-            if (m == -1) {
-                return 0;
+            long position = filePosition;
+            long size = channel.size();
+            while (position < size) {
+                long n = channel.transferTo(position, size - position, target);
+                if (n <= 0)
+                    break;
+                position += n;
             }
+            channel.position(position);
+            filePosition = position;
+            ((FileStream) destination).filePosition = target.position();
         } catch (IOException e) {
-            e.printStackTrace();
             throw new dotnet4j.io.IOException(e);
         }
-        return m;
     }
 
+    @Override
+    public int readByte() {
+        if (readPos < readLen)
+            return buffer[readPos++] & 0xff;
+        if (bufferSize > 0) {
+            flushWrite();
+            readPos = 0;
+            readLen = channelRead(ByteBuffer.wrap(buffer(), 0, bufferSize));
+            return readLen == 0 ? -1 : buffer[readPos++] & 0xff;
+        }
+        oneByte.clear();
+        if (read(oneByte) == 0)
+            return -1;
+        return oneByte.get(0) & 0xff;
+    }
+
+    /**
+     * the buffer is passed straight to the channel, direct buffers need no extra copy.
+     * the internal buffer is flushed first.
+     */
+    @Override
+    public int read(ByteBuffer dst) {
+        flushBuffer();
+        return channelRead(dst);
+    }
+
+    /** positional read, the channel position is not changed */
+    @Override
+    public int read(ByteBuffer dst, long position) {
+        if (position < 0)
+            throw new IllegalArgumentException("position is negative");
+
+        flushWrite();
+        checkAligned(position, dst.remaining());
+        try {
+            int m = channel.read(dst, position);
+            return m == -1 ? 0 : m;
+        } catch (IOException e) {
+            throw new dotnet4j.io.IOException(e);
+        }
+    }
+
+    /** a seek inside of the read buffer keeps the buffer */
     @Override
     public long seek(long offset, SeekOrigin origin) {
         try {
+            long target;
             switch (origin) {
                 case Begin:
-                    channel.position(offset);
+                    target = offset;
+                    break;
                 case Current:
-                    channel.position(offset + channel.position());
+                    target = getPosition() + offset;
                     break;
                 case End:
-                    channel.position(channel.size() + offset);
+                    target = getLength() + offset;
                     break;
+                default:
+                    throw new IllegalArgumentException("origin: " + origin);
+            }
+            if (target < 0)
+                throw new dotnet4j.io.IOException("An attempt was made to move the position before the beginning of the stream.");
+
+            if (readLen > 0) {
+                long bufferStart = filePosition - readLen;
+                if (target >= bufferStart && target <= filePosition) {
+                    readPos = (int) (target - bufferStart);
+                    return target;
+                }
+                readPos = readLen = 0;
             }
+            flushWrite();
+            if (target != filePosition) {
+                channel.position(target);
+                filePosition = target;
+            }
+            return target;
         }
         catch (IOException e)
         {
             throw new dotnet4j.io.IOException(e);
         }
-        return getPosition();
     }
 
+    /**
+     * Truncates or extends the file. How the file is extended follows
+     * {@link #getExtendMode()}. When the position is beyond the new length,
+     * it is moved to the end.
+     */
     @Override
     public void setLength(long value)
     {
-        throw new RuntimeException("This method is not implemented (yet).");
+        if (value < 0)
+            throw new IndexOutOfBoundsException("value is negative");
+        if (!canWrite())
+            throw new dotnet4j.io.IOException("not writable");
+
+        flushBuffer();
+        try {
+            long size = channel.size();
+            if (value < size) {
+                channel.truncate(value);
+                // truncate moves the channel position to the new size
+                if (filePosition > value)
+                    filePosition = value;
+            } else if (value > size) {
+                if (extendMode == ExtendMode.Preallocated)
+                    writeZeros(size, value);
+                else
+                    extendSparse(value);
+            }
+        } catch (IOException e) {
+            throw new dotnet4j.io.IOException(e);
+        }
     }
 
+    /** how {@link #setLength(long)} extends the file */
+    public enum ExtendMode {
+        /** leaves a hole, no blocks are allocated for the extended region where the file system supports it */
+        Sparse,
+        /** writes zeros, the blocks are allocated up front */
+        Preallocated
+    }
+
+    public ExtendMode getExtendMode() {
+        return extendMode;
+    }
+
+    public void setExtendMode(ExtendMode extendMode) {
+        if (extendMode == null)
+            throw new NullPointerException("extendMode");
+        this.extendMode = extendMode;
+    }
+
+    /**
+     * Reserves the blocks of the file up to {@code size} by writing zeros
+     * beyond the current length, nothing is done when the file is not shorter.
+     * The length becomes {@code size} since java has no way to allocate blocks
+     * beyond the end of a file, the position is not changed.
+     */
+    public void preallocate(long size) {
+        if (size < 0)
+            throw new IndexOutOfBoundsException("size is negative");
+        if (!canWrite())
+            throw new dotnet4j.io.IOException("not writable");
+
+        flushBuffer();
+        try {
+            long current = channel.size();
+            if (size > current)
+                writeZeros(current, size);
+        } catch (IOException e) {
+            throw new dotnet4j.io.IOException(e);
+        }
+    }
+
+    /** positions the end and writes a single byte, the gap becomes a hole */
+    private void extendSparse(long value) throws IOException {
+        if (alignment != 0) {
+            // a single byte can not be written by direct I/O, ftruncate through another descriptor
+            try (java.io.RandomAccessFile raf = new java.io.RandomAccessFile(myPath, "rw")) {
+                raf.setLength(value);
+            }
+            return;
+        }
+        ByteBuffer zero = ByteBuffer.allocate(1);
+        while (zero.hasRemaining()) {
+            channel.write(zero, value - 1);
+        }
+    }
+
+    /** writes zeros by large chunks, the channel position is not changed */
+    private void writeZeros(long from, long to) throws IOException {
+        checkAligned(from, 0);
+        checkAligned(to, 0);
+        boolean pooled = alignment == 0;
+        ByteBuffer zeros = pooled ? ArrayPool.getShared().rentDirect(ZeroChunkSize) : allocateAligned(ZeroChunkSize, alignment);
+        try {
+            if (pooled) {
+                // a pooled buffer may have old data
+                zeros.clear();
+                while (zeros.hasRemaining())
+                    zeros.put(zeroBytes, 0, Math.min(zeroBytes.length, zeros.remaining()));
+            }
+            for (long position = from; position < to; ) {
+                zeros.clear();
+                zeros.limit((int) Math.min(ZeroChunkSize, to - position));
+                while (zeros.hasRemaining()) {
+                    position += channel.write(zeros, position);
+                }
+            }
+        } finally {
+            if (pooled)
+                ArrayPool.getShared().returnDirect(zeros);
+        }
+    }
+
+    /**
+     * When buffered, small writes are gathered in the internal buffer and
+     * written by one channel write, writes not smaller than the buffer go to
+     * the channel directly.
+     */
     @Override
     public void write(byte[] buffer, int offset, int count)
     {
-        ByteBuffer temp = ByteBuffer.wrap(buffer,offset,count);
+        if (bufferSize == 0) {
+            channelWrite(ByteBuffer.wrap(buffer, offset, count));
+            return;
+        }
+
+        flushRead();
+        if (writePos + count <= bufferSize) {
+            System.arraycopy(buffer, offset, buffer(), writePos, count);
+            writePos += count;
+            return;
+        }
+        flushWrite();
+        if (count >= bufferSize) {
+            channelWrite(ByteBuffer.wrap(buffer, offset, count));
+        } else {
+            System.arraycopy(buffer, offset, buffer(), 0, count);
+            writePos = count;
+        }
+    }
+
+    @Override
+    public void writeByte(byte value) {
+        if (bufferSize > 0) {
+            if (writePos == 0)
+                flushRead();
+            else if (writePos == bufferSize)
+                flushWrite();
+            buffer()[writePos++] = value;
+            return;
+        }
+        oneByte.clear();
+        oneByte.put(0, value);
+        write(oneByte);
+    }
+
+    /**
+     * the buffer is passed straight to the channel, direct buffers need no extra copy.
+     * the internal buffer is flushed first.
+     */
+    @Override
+    public void write(ByteBuffer src) {
+        flushBuffer();
+        channelWrite(src);
+    }
+
+    /** positional write, the channel position is not changed */
+    @Override
+    public void write(ByteBuffer src, long position) {
+        if (position < 0)
+            throw new IllegalArgumentException("position is negative");
+
+        flushBuffer();
+        checkAligned(position, src.remaining());
         try {
-            channel.write(temp);
+            while (src.hasRemaining()) {
+                position += channel.write(src, position);
+            }
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new dotnet4j.io.IOException(e);
         }
     }
+
+    /**
+     * The file is opened again by the path with the same options as the
+     * channel, so this fails once the file is renamed or deleted after this
+     * stream was opened.
+     */
+    private synchronized AsynchronousFileChannel getAsyncChannel() {
+        if (asyncChannel == null) {
+            try {
+                asyncChannel = AsynchronousFileChannel.open(Paths.get(myPath), asyncOptions, null);
+            } catch (IOException e) {
+                throw new dotnet4j.io.IOException(e);
+            }
+        }
+        return asyncChannel;
+    }
+
+    /**
+     * Reads on an {@link AsynchronousFileChannel}, no thread is blocked while
+     * waiting for the data.
+     * Like .NET, the position is advanced by {@code count} when the read is
+     * issued and moved back by the shortfall when it completes.
+     * For direct I/O the data goes through an aligned buffer.
+     */
+    @Override
+    public CompletableFuture<Integer> readAsync(byte[] buffer, int offset, int count) {
+        ByteBuffer dst = alignment != 0 ? allocateAligned(count, alignment) : ByteBuffer.wrap(buffer, offset, count);
+        AsynchronousFileChannel asyncChannel = getAsyncChannel();
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        long position;
+        synchronized (this) {
+            flushBuffer();
+            position = getPosition();
+            checkAligned(position, count);
+            setPosition(position + count);
+        }
+        asyncChannel.read(dst, position, null, new CompletionHandler<Integer, Void>() {
+            @Override
+            public void completed(Integer result, Void attachment) {
+                int m = result == -1 ? 0 : result;
+                if (alignment != 0) {
+                    dst.flip();
+                    dst.get(buffer, offset, m);
+                }
+                if (m < count) {
+                    synchronized (FileStream.this) {
+                        if (channel != null)
+                            setPosition(getPosition() - (count - m));
+                    }
+                }
+                future.complete(m);
+            }
+
+            @Override
+            public void failed(Throwable t, Void attachment) {
+                synchronized (FileStream.this) {
+                    if (channel != null)
+                        setPosition(getPosition() - count);
+                }
+                future.completeExceptionally(new dotnet4j.io.IOException(t));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Writes on an {@link AsynchronousFileChannel}, no thread is blocked while
+     * waiting for the device.
+     * The position is advanced by {@code count} when the write is issued.
+     * For direct I/O the data goes through an aligned buffer.
+     */
+    @Override
+    public CompletableFuture<Void> writeAsync(byte[] buffer, int offset, int count) {
+        ByteBuffer src;
+        if (alignment != 0) {
+            src = allocateAligned(count, alignment);
+            src.put(buffer, offset, count).flip();
+        } else {
+            src = ByteBuffer.wrap(buffer, offset, count);
+        }
+        AsynchronousFileChannel asyncChannel = getAsyncChannel();
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        long position;
+        synchronized (this) {
+            flushBuffer();
+            position = getPosition();
+            checkAligned(position, count);
+            setPosition(position + count);
+        }
+        asyncChannel.write(src, position, position, new CompletionHandler<Integer, Long>() {
+            @Override
+            public void completed(Integer result, Long start) {
+                if (src.hasRemaining() && !future.isDone()) {
+                    long next = start + result;
+                    asyncChannel.write(src, next, next, this);
+                } else {
+                    future.complete(null);
+                }
+            }
+
+            @Override
+            public void failed(Throwable t, Long start) {
+                future.completeExceptionally(new dotnet4j.io.IOException(t));
+            }
+        });
+        return future;
+    }
 }
@@ -6,6 +6,7 @@ package dotnet4j.io;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 
@@ -317,6 +318,99 @@ public class MemoryStream extends Stream implements Serializable {
         position = i;
     }
 
+    /** plain array copy, the position is not changed */
+    @Override
+    public int readAt(long position, byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count");
+        if (buffer.length - offset < count)
+            throw new IllegalArgumentException("buffer.length - offset <= count");
+
+        int start = toIndex(position);
+        int n = Math.min(length - start, count);
+        if (n <= 0) {
+            return 0;
+        }
+
+        System.arraycopy(this.buffer, start, buffer, offset, n);
+        return n;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) {
+        int start = toIndex(position);
+        int n = Math.min(length - start, dst.remaining());
+        if (n <= 0) {
+            return 0;
+        }
+
+        dst.put(this.buffer, start, n);
+        return n;
+    }
+
+    /** plain array copy, the position is not changed */
+    @Override
+    public void writeAt(long position, byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count");
+        if (buffer.length - offset < count)
+            throw new IllegalArgumentException("buffer.length - offset <= count");
+
+        int start = prepareWriteAt(position, count);
+        System.arraycopy(buffer, offset, this.buffer, start, count);
+    }
+
+    @Override
+    public void write(ByteBuffer src, long position) {
+        int count = src.remaining();
+        int start = prepareWriteAt(position, count);
+        src.get(this.buffer, start, count);
+    }
+
+    /** @return the index in {@link #buffer} for the stream position */
+    private int toIndex(long position) {
+        if (closed)
+            throw new dotnet4j.io.IOException("object disposed");
+        if (position < 0)
+            throw new IndexOutOfBoundsException("position is negative");
+        if (position > Integer.MAX_VALUE - origin)
+            return Integer.MAX_VALUE;
+        return origin + (int) position;
+    }
+
+    /** expands the stream for a positional write, @return the start index in {@link #buffer} */
+    private int prepareWriteAt(long position, int count) {
+        int start = toIndex(position);
+        if (!canWrite())
+            throw new dotnet4j.io.IOException("not writable");
+
+        int i = start + count;
+        // Check for overflow
+        if (i < 0)
+            throw new dotnet4j.io.IOException("overflow");
+
+        if (i > length) {
+            boolean mustZero = start > length;
+            if (i > capacity) {
+                boolean allocatedNewArray = ensureCapacity(i);
+                if (allocatedNewArray)
+                    mustZero = false;
+            }
+            if (mustZero)
+                Arrays.fill(this.buffer, length, start, (byte) 0);
+            length = i;
+        }
+        return start;
+    }
+
     @Override
     public void close() throws IOException {
         buffer = null;
@@ -357,6 +451,35 @@ public class MemoryStream extends Stream implements Serializable {
         buffer[position++] = value;
     }
 
+    /**
+     * The rest of the buffer is written to the destination at once, without a
+     * temporary buffer. Subclasses may override {@link #read(byte[], int, int)},
+     * so they go through the default implementation.
+     */
+    @Override
+    public void copyTo(Stream destination, int bufferSize) {
+        if (getClass() != MemoryStream.class) {
+            super.copyTo(destination, bufferSize);
+            return;
+        }
+
+        if (destination == null)
+            throw new NullPointerException("destination");
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("bufferSize is not positive");
+        if (closed)
+            throw new dotnet4j.io.IOException("object disposed");
+        if (!destination.canWrite())
+            throw new UnsupportedOperationException("destination is not writeable");
+
+        int originalPosition = position;
+        int remaining = length - position;
+        if (remaining > 0) {
+            position = length;
+            destination.write(buffer, originalPosition, remaining);
+        }
+    }
+
     // Writes this MemoryStream to another stream.
     public void writeTo(Stream stream) {
         if (stream == null)
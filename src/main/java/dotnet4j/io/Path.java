@@ -417,7 +417,7 @@ public class Path {
                                    FileShare.Read,
                                    8192,
                                    false,
-                                   FileOptions.values()[1]);
+                                   FileOptions.None);
             } catch (IOException ex) {
                 if (count++ > 65536)
                     throw ex;
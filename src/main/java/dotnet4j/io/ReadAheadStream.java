@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dotnet4j.buffers.ArrayPool;
+
+
+/**
+ * ReadAheadStream.
+ * <p>
+ * A read only decorator which, once the reads turn out to be sequential,
+ * reads the next blocks of the wrapped stream on the
+ * {@link Stream#getAsyncExecutor() async executor} while the caller consumes
+ * the current one, so that the I/O of the wrapped stream and the work of the
+ * caller (e.g. decompression) overlap.
+ * <p>
+ * At most {@code depth} blocks of {@code blockSize} are held ahead. A seek
+ * stops the prefetch and drops the blocks, the reads after it go to the
+ * wrapped stream directly until they are sequential again. An error of the
+ * background read is thrown by the read which reaches it.
+ * <p>
+ * The wrapped stream must not be used except through this stream.
+ * This class is not thread safe, like the other streams.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class ReadAheadStream extends Stream {
+
+    /** 64KB */
+    public static final int DefaultBlockSize = 64 * 1024;
+
+    public static final int DefaultDepth = 4;
+
+    /** the number of reads without a seek to start prefetching */
+    private static final int SequentialThreshold = 2;
+
+    /** a prefetched block, the array is from the pool */
+    private static final class Block {
+        final byte[] data;
+        final int length;
+        int offset;
+
+        Block(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    private Stream stream;
+
+    private final int blockSize;
+
+    private final int depth;
+
+    /** the block being consumed, only touched by the caller */
+    private Block current;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition changed = lock.newCondition();
+
+    /** guarded by lock */
+    private final ArrayDeque<Block> ready = new ArrayDeque<>();
+
+    /** a prefetch task is running, guarded by lock */
+    private boolean fetching;
+
+    /** the prefetch reached the end of the stream, guarded by lock */
+    private boolean eof;
+
+    /** the error of the prefetch, guarded by lock */
+    private Throwable error;
+
+    /** incremented to abandon the running prefetch, guarded by lock */
+    private long generation;
+
+    private long position;
+
+    private int sequentialReads;
+
+    public ReadAheadStream(Stream stream) {
+        this(stream, DefaultBlockSize, DefaultDepth);
+    }
+
+    /**
+     * @param blockSize the size of a read of the wrapped stream
+     * @param depth the maximum number of blocks read ahead
+     */
+    public ReadAheadStream(Stream stream, int blockSize, int depth) {
+        if (stream == null)
+            throw new NullPointerException("stream");
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("blockSize is not positive");
+        if (depth <= 0)
+            throw new IllegalArgumentException("depth is not positive");
+        if (!stream.canRead())
+            throw new IllegalArgumentException("stream is not readable");
+
+        this.stream = stream;
+        this.blockSize = blockSize;
+        this.depth = depth;
+        this.position = stream.canSeek() ? stream.getPosition() : 0;
+    }
+
+    private void ensureNotClosed() {
+        if (stream == null)
+            throw new dotnet4j.io.IOException("stream is closed");
+    }
+
+    @Override
+    public boolean canRead() {
+        return stream != null;
+    }
+
+    @Override
+    public boolean canSeek() {
+        return stream != null && stream.canSeek();
+    }
+
+    @Override
+    public boolean canWrite() {
+        return false;
+    }
+
+    @Override
+    public long getLength() {
+        ensureNotClosed();
+        synchronized (stream) {
+            return stream.getLength();
+        }
+    }
+
+    @Override
+    public long getPosition() {
+        ensureNotClosed();
+        return position;
+    }
+
+    @Override
+    public void setPosition(long value) {
+        seek(value, SeekOrigin.Begin);
+    }
+
+    @Override
+    public long seek(long offset, SeekOrigin origin) {
+        ensureNotClosed();
+        if (!stream.canSeek())
+            throw new UnsupportedOperationException("stream is not seekable");
+
+        long target;
+        switch (origin) {
+        case Begin:
+            target = offset;
+            break;
+        case Current:
+            target = position + offset;
+            break;
+        case End:
+            target = getLength() + offset;
+            break;
+        default:
+            throw new IllegalArgumentException("origin: " + origin);
+        }
+        if (target < 0)
+            throw new dotnet4j.io.IOException("invalid value");
+
+        stopPrefetch();
+        stream.seek(target, SeekOrigin.Begin);
+        position = target;
+        sequentialReads = 0;
+        return position;
+    }
+
+    @Override
+    public void setLength(long value) {
+        throw new UnsupportedOperationException("stream is read only");
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count");
+        if (buffer.length - offset < count)
+            throw new IllegalArgumentException("buffer.length - offset <= count");
+        ensureNotClosed();
+        if (count == 0)
+            return 0;
+
+        if (current == null && sequentialReads < SequentialThreshold) {
+            // not sequential yet, nothing is prefetched
+            sequentialReads++;
+            int n = stream.read(buffer, offset, count);
+            position += n;
+            return n;
+        }
+
+        if (current == null || current.offset == current.length) {
+            release(current);
+            // not to be released twice when take throws
+            current = null;
+            current = take();
+            if (current == null)
+                return 0;
+        }
+        int n = Math.min(current.length - current.offset, count);
+        System.arraycopy(current.data, current.offset, buffer, offset, n);
+        current.offset += n;
+        position += n;
+        return n;
+    }
+
+    /** @return the next block, null at the end of the stream */
+    private Block take() {
+        lock.lock();
+        try {
+            while (true) {
+                Block block = ready.poll();
+                if (block != null) {
+                    startPrefetch();
+                    return block;
+                }
+                if (error != null)
+                    throw error instanceof RuntimeException ? (RuntimeException) error : new dotnet4j.io.IOException(error);
+                if (eof)
+                    return null;
+                startPrefetch();
+                changed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** lock must be held */
+    private void startPrefetch() {
+        if (fetching || eof || error != null || ready.size() >= depth)
+            return;
+
+        fetching = true;
+        long generation = this.generation;
+        try {
+            getAsyncExecutor().execute(() -> prefetch(generation));
+        } catch (RejectedExecutionException e) {
+            fetching = false;
+            error = e;
+        }
+    }
+
+    /** runs on the async executor, reads blocks until the ring is full */
+    private void prefetch(long generation) {
+        Stream stream = this.stream;
+        while (true) {
+            lock.lock();
+            try {
+                if (generation != this.generation || eof || ready.size() >= depth) {
+                    fetching = false;
+                    changed.signalAll();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            byte[] data = ArrayPool.getShared().rent(blockSize);
+            int n = 0;
+            Throwable t = null;
+            try {
+                synchronized (stream) {
+                    while (n < blockSize) {
+                        int r = stream.read(data, n, blockSize - n);
+                        if (r <= 0)
+                            break;
+                        n += r;
+                    }
+                }
+            } catch (Throwable e) {
+                t = e;
+            }
+
+            lock.lock();
+            try {
+                if (generation != this.generation || t != null || n == 0)
+                    ArrayPool.getShared().returnArray(data);
+                if (generation != this.generation) {
+                    fetching = false;
+                    changed.signalAll();
+                    return;
+                }
+                if (t != null) {
+                    error = t;
+                    fetching = false;
+                    changed.signalAll();
+                    return;
+                }
+                if (n > 0)
+                    ready.add(new Block(data, n));
+                if (n < blockSize)
+                    eof = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** abandons the prefetch, waits for the running read and drops the blocks */
+    private void stopPrefetch() {
+        lock.lock();
+        try {
+            generation++;
+            while (fetching) {
+                changed.awaitUninterruptibly();
+            }
+            for (Block block : ready) {
+                release(block);
+            }
+            ready.clear();
+            eof = false;
+            error = null;
+        } finally {
+            lock.unlock();
+        }
+        release(current);
+        current = null;
+    }
+
+    private static void release(Block block) {
+        if (block != null)
+            ArrayPool.getShared().returnArray(block.data);
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int count) {
+        throw new UnsupportedOperationException("stream is read only");
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        if (stream == null)
+            return;
+        try {
+            stopPrefetch();
+            stream.close();
+        } finally {
+            stream = null;
+        }
+    }
+}
+
+/* */
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+/**
+ * RecyclableMemoryStream.
+ * <p>
+ * A {@link ChunkedMemoryStream} whose chunks are borrowed from a
+ * {@link RecyclableMemoryStreamManager} and given back on {@link #close()}.
+ * Always close instances, unclosed ones just leave their blocks to the
+ * garbage collector.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class RecyclableMemoryStream extends ChunkedMemoryStream {
+
+    private final RecyclableMemoryStreamManager manager;
+
+    /** the last result of {@link #getBuffer()} if it is from the large pool */
+    private byte[] largeBuffer;
+
+    public RecyclableMemoryStream(RecyclableMemoryStreamManager manager) {
+        super(manager.getBlockSize());
+        this.manager = manager;
+    }
+
+    public RecyclableMemoryStreamManager getManager() {
+        return manager;
+    }
+
+    @Override
+    protected byte[] allocateChunk() {
+        return manager.getBlock();
+    }
+
+    @Override
+    protected void releaseChunk(byte[] chunk) {
+        manager.returnBlock(chunk);
+    }
+
+    /**
+     * Returns a contiguous copy of the content, taken from the large buffer
+     * pool of the manager. The array may be longer than {@link #getLength()},
+     * and it is valid until the next call of this method or {@link #close()},
+     * later writes to the stream are not reflected.
+     *
+     * @throws dotnet4j.io.IOException the length is too large for an array
+     */
+    public byte[] getBuffer() {
+        long length = getLength();
+        if (length > Integer.MAX_VALUE - 8)
+            throw new dotnet4j.io.IOException("stream is too large for an array: " + length);
+
+        releaseLargeBuffer();
+        byte[] buffer = manager.getLargeBuffer((int) length);
+        readAt(0, buffer, 0, (int) length);
+        largeBuffer = buffer;
+        return buffer;
+    }
+
+    private void releaseLargeBuffer() {
+        if (largeBuffer != null) {
+            manager.returnLargeBuffer(largeBuffer);
+            largeBuffer = null;
+        }
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        releaseLargeBuffer();
+        super.close();
+    }
+}
+
+/* */
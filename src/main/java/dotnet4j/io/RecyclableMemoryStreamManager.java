@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * RecyclableMemoryStreamManager.
+ * <p>
+ * Lends fixed size blocks to {@link RecyclableMemoryStream}s and takes them
+ * back when the streams are closed. Contiguous buffers requested by
+ * {@link RecyclableMemoryStream#getBuffer()} are pooled separately by multiples
+ * of {@link #getLargeBufferMultiple()}.
+ * <p>
+ * Free blocks and buffers are kept up to {@link #getMaximumFreeSmallPoolBytes()}
+ * and {@link #getMaximumFreeLargePoolBytes()}, the ones over the limits are left
+ * to the garbage collector. This class is thread safe.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class RecyclableMemoryStreamManager {
+
+    /** 128KB */
+    public static final int DefaultBlockSize = 128 * 1024;
+
+    /** 1MB */
+    public static final int DefaultLargeBufferMultiple = 1024 * 1024;
+
+    /** 128MB */
+    public static final int DefaultMaximumBufferSize = 128 * 1024 * 1024;
+
+    private static final RecyclableMemoryStreamManager shared = new RecyclableMemoryStreamManager();
+
+    /** @return the process wide manager with the default settings */
+    public static RecyclableMemoryStreamManager getShared() {
+        return shared;
+    }
+
+    private final int blockSize;
+
+    private final int largeBufferMultiple;
+
+    private final int maximumBufferSize;
+
+    private volatile long maximumFreeSmallPoolBytes;
+
+    private volatile long maximumFreeLargePoolBytes;
+
+    private final Deque<byte[]> smallPool = new ConcurrentLinkedDeque<>();
+
+    /** index is (length / largeBufferMultiple - 1) */
+    private final Deque<byte[]>[] largePools;
+
+    private final AtomicLong smallPoolInUseSize = new AtomicLong();
+
+    private final AtomicLong smallPoolFreeSize = new AtomicLong();
+
+    private final AtomicLong largePoolInUseSize = new AtomicLong();
+
+    private final AtomicLong largePoolFreeSize = new AtomicLong();
+
+    private final AtomicLong largeBufferRequests = new AtomicLong();
+
+    private final AtomicLong unpooledLargeBufferRequests = new AtomicLong();
+
+    public RecyclableMemoryStreamManager() {
+        this(DefaultBlockSize, DefaultLargeBufferMultiple, DefaultMaximumBufferSize);
+    }
+
+    /**
+     * @param blockSize the size of a block
+     * @param largeBufferMultiple large buffers are allocated by multiples of this
+     * @param maximumBufferSize large buffers over this are not pooled,
+     *            must be a multiple of largeBufferMultiple
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RecyclableMemoryStreamManager(int blockSize, int largeBufferMultiple, int maximumBufferSize) {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("blockSize is not positive");
+        if (largeBufferMultiple <= 0)
+            throw new IllegalArgumentException("largeBufferMultiple is not positive");
+        if (maximumBufferSize < largeBufferMultiple || maximumBufferSize % largeBufferMultiple != 0)
+            throw new IllegalArgumentException("maximumBufferSize is not a multiple of largeBufferMultiple");
+
+        this.blockSize = blockSize;
+        this.largeBufferMultiple = largeBufferMultiple;
+        this.maximumBufferSize = maximumBufferSize;
+        this.maximumFreeSmallPoolBytes = 256L * blockSize;
+        this.maximumFreeLargePoolBytes = 4L * maximumBufferSize;
+
+        largePools = (Deque<byte[]>[]) new Deque[maximumBufferSize / largeBufferMultiple];
+        for (int i = 0; i < largePools.length; i++) {
+            largePools[i] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public int getLargeBufferMultiple() {
+        return largeBufferMultiple;
+    }
+
+    public int getMaximumBufferSize() {
+        return maximumBufferSize;
+    }
+
+    public long getMaximumFreeSmallPoolBytes() {
+        return maximumFreeSmallPoolBytes;
+    }
+
+    public void setMaximumFreeSmallPoolBytes(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("value is negative");
+        maximumFreeSmallPoolBytes = value;
+    }
+
+    public long getMaximumFreeLargePoolBytes() {
+        return maximumFreeLargePoolBytes;
+    }
+
+    public void setMaximumFreeLargePoolBytes(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("value is negative");
+        maximumFreeLargePoolBytes = value;
+    }
+
+    /** @return a zero filled block of {@link #getBlockSize()} */
+    byte[] getBlock() {
+        byte[] block = smallPool.pollFirst();
+        if (block != null) {
+            smallPoolFreeSize.addAndGet(-blockSize);
+        } else {
+            block = new byte[blockSize];
+        }
+        smallPoolInUseSize.addAndGet(blockSize);
+        return block;
+    }
+
+    /** the block is cleared and kept for the next {@link #getBlock()} if the pool has room */
+    void returnBlock(byte[] block) {
+        if (block.length != blockSize)
+            throw new IllegalArgumentException("block is not from this manager");
+
+        smallPoolInUseSize.addAndGet(-blockSize);
+        if (smallPoolFreeSize.get() + blockSize <= maximumFreeSmallPoolBytes) {
+            Arrays.fill(block, (byte) 0);
+            smallPoolFreeSize.addAndGet(blockSize);
+            smallPool.offerFirst(block);
+        }
+    }
+
+    /**
+     * @param requiredSize the minimum length
+     * @return a buffer whose length is requiredSize rounded up to {@link #getLargeBufferMultiple()},
+     *         the content is undefined
+     */
+    byte[] getLargeBuffer(int requiredSize) {
+        largeBufferRequests.incrementAndGet();
+
+        int size = roundUp(requiredSize);
+        if (size > maximumBufferSize) {
+            unpooledLargeBufferRequests.incrementAndGet();
+            return new byte[requiredSize];
+        }
+
+        byte[] buffer = largePools[size / largeBufferMultiple - 1].pollFirst();
+        if (buffer != null) {
+            largePoolFreeSize.addAndGet(-size);
+        } else {
+            buffer = new byte[size];
+        }
+        largePoolInUseSize.addAndGet(size);
+        return buffer;
+    }
+
+    /** buffers which are not from {@link #getLargeBuffer(int)} pool are ignored */
+    void returnLargeBuffer(byte[] buffer) {
+        int size = buffer.length;
+        if (size > maximumBufferSize || size % largeBufferMultiple != 0 || size == 0)
+            return;
+
+        largePoolInUseSize.addAndGet(-size);
+        if (largePoolFreeSize.get() + size <= maximumFreeLargePoolBytes) {
+            largePoolFreeSize.addAndGet(size);
+            largePools[size / largeBufferMultiple - 1].offerFirst(buffer);
+        }
+    }
+
+    private int roundUp(int size) {
+        long rounded = ((Math.max(size, 1) + (long) largeBufferMultiple - 1) / largeBufferMultiple) * largeBufferMultiple;
+        return (int) Math.min(rounded, Integer.MAX_VALUE);
+    }
+
+    /** @return the number of blocks lent to the streams */
+    public long getSmallBlocksInUse() {
+        return smallPoolInUseSize.get() / blockSize;
+    }
+
+    /** @return the bytes of blocks lent to the streams */
+    public long getSmallPoolInUseSize() {
+        return smallPoolInUseSize.get();
+    }
+
+    /** @return the bytes of blocks kept in the pool */
+    public long getSmallPoolFreeSize() {
+        return smallPoolFreeSize.get();
+    }
+
+    /** @return the bytes of large buffers lent to the streams */
+    public long getLargePoolInUseSize() {
+        return largePoolInUseSize.get();
+    }
+
+    /** @return the bytes of large buffers kept in the pool */
+    public long getLargePoolFreeSize() {
+        return largePoolFreeSize.get();
+    }
+
+    /** @return the bytes kept in the pools in total */
+    public long getPooledBytes() {
+        return smallPoolFreeSize.get() + largePoolFreeSize.get();
+    }
+
+    /** @return the number of large buffer requests */
+    public long getLargeBufferRequests() {
+        return largeBufferRequests.get();
+    }
+
+    /** @return the number of large buffer requests over {@link #getMaximumBufferSize()} */
+    public long getUnpooledLargeBufferRequests() {
+        return unpooledLargeBufferRequests.get();
+    }
+
+    /** @return a new stream using this manager */
+    public RecyclableMemoryStream getStream() {
+        return new RecyclableMemoryStream(this);
+    }
+
+    /** @return a new stream using this manager, which contains a copy of the buffer */
+    public RecyclableMemoryStream getStream(byte[] buffer, int offset, int count) {
+        RecyclableMemoryStream stream = new RecyclableMemoryStream(this);
+        stream.write(buffer, offset, count);
+        stream.setPosition(0);
+        return stream;
+    }
+
+    @Override
+    public String toString() {
+        return "RecyclableMemoryStreamManager{" +
+                "blockSize=" + blockSize +
+                ", smallInUse=" + smallPoolInUseSize.get() +
+                ", smallFree=" + smallPoolFreeSize.get() +
+                ", largeInUse=" + largePoolInUseSize.get() +
+                ", largeFree=" + largePoolFreeSize.get() +
+                ", largeBufferRequests=" + largeBufferRequests.get() +
+                '}';
+    }
+}
+
+/* */
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.nio.ByteBuffer;
+
+import dotnet4j.buffers.ArrayPool;
+
+
+/**
+ * SparseCopier.
+ * <p>
+ * Copies a stream block by block, the blocks which are all zero are not
+ * written but skipped by seeking the destination, so a sparse destination
+ * (e.g. a {@link FileStream}) gets holes instead of zeros. Blocks are skipped
+ * only beyond the end of the destination where the content is known to be
+ * zero, existing data in the destination is always overwritten.
+ * <p>
+ * Instances are not thread safe, the counters are for the last copy.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class SparseCopier {
+
+    /** 64KB */
+    public static final int DefaultBlockSize = 64 * 1024;
+
+    private final int blockSize;
+
+    private long bytesRead;
+
+    private long bytesWritten;
+
+    public SparseCopier() {
+        this(DefaultBlockSize);
+    }
+
+    /**
+     * @param blockSize the unit of zero detection, a multiple of the file
+     *            system block size makes the holes effective
+     */
+    public SparseCopier(int blockSize) {
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("blockSize is not positive");
+
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Copies from the current position of the source to its end into the
+     * current position of the destination. After the copy, the destination is
+     * positioned at the end of the copied data, its length is extended to there
+     * if the last blocks are skipped.
+     *
+     * @return the number of bytes actually written to the destination
+     */
+    public long copy(Stream source, Stream destination) {
+        if (source == null)
+            throw new NullPointerException("source");
+        if (destination == null)
+            throw new NullPointerException("destination");
+        if (!source.canRead())
+            throw new UnsupportedOperationException("source is not readable");
+        if (!destination.canWrite())
+            throw new UnsupportedOperationException("destination is not writeable");
+
+        bytesRead = 0;
+        bytesWritten = 0;
+
+        boolean seekable = destination.canSeek();
+        long position = seekable ? destination.getPosition() : 0;
+        long length = seekable ? destination.getLength() : 0;
+
+        byte[] buffer = ArrayPool.getShared().rent(blockSize);
+        try {
+            ByteBuffer words = ByteBuffer.wrap(buffer);
+            while (true) {
+                int n = fill(source, buffer);
+                if (n == 0)
+                    break;
+                bytesRead += n;
+                if (seekable && position >= length && isZero(words, 0, n)) {
+                    destination.seek(n, SeekOrigin.Current);
+                    position += n;
+                } else {
+                    destination.write(buffer, 0, n);
+                    bytesWritten += n;
+                    position += n;
+                    length = Math.max(length, position);
+                }
+                if (n < blockSize)
+                    break;
+            }
+        } finally {
+            ArrayPool.getShared().returnArray(buffer);
+        }
+
+        if (seekable && position > length)
+            destination.setLength(position);
+        return bytesWritten;
+    }
+
+    /** reads until the block is full or the end of the source */
+    private int fill(Stream source, byte[] buffer) {
+        int n = 0;
+        while (n < blockSize) {
+            int r = source.read(buffer, n, blockSize - n);
+            if (r <= 0)
+                break;
+            n += r;
+        }
+        return n;
+    }
+
+    /** @return the number of bytes read from the source by the last copy */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /** @return the number of bytes written to the destination by the last copy */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /** @return the number of bytes skipped as zero by the last copy */
+    public long getBytesSkipped() {
+        return bytesRead - bytesWritten;
+    }
+
+    /**
+     * Compares by 8 bytes at once.
+     *
+     * @return true if all the bytes in the range are zero
+     */
+    public static boolean isZero(byte[] buffer, int offset, int count) {
+        return isZero(ByteBuffer.wrap(buffer), offset, count);
+    }
+
+    /**
+     * Compares by 8 bytes at once, the position of the buffer is not used nor changed.
+     *
+     * @return true if all the bytes in the range are zero
+     */
+    public static boolean isZero(ByteBuffer buffer, int offset, int count) {
+        int i = offset;
+        int end = offset + count;
+        for (; i + 8 <= end; i += 8) {
+            if (buffer.getLong(i) != 0)
+                return false;
+        }
+        for (; i < end; i++) {
+            if (buffer.get(i) != 0)
+                return false;
+        }
+        return true;
+    }
+}
+
+/* */
@@ -3,9 +3,18 @@ package dotnet4j.io;
 
 import org.jetbrains.annotations.Contract;
 
+import dotnet4j.buffers.ArrayPool;
+
 import java.io.*;
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 
 /**
@@ -16,6 +25,50 @@ public abstract class Stream implements Closeable, AutoCloseable {
 
     private static ResourceBundle resourceBundle;
 
+    /** max size of the temporary array for non array backed {@link ByteBuffer}s */
+    private static final int BridgeBufferSize = 8192;
+
+    /**
+     * max buffer size for {@link #copyTo(Stream)}, the same as .NET's which is
+     * not to be allocated on the Large Object Heap.
+     */
+    private static final int DefaultCopyBufferSize = 81920;
+
+    /** executes the default implementations of the asynchronous methods */
+    private static volatile Executor asyncExecutor = defaultAsyncExecutor();
+
+    /**
+     * virtual-thread-per-task executor when the runtime has one (java 21~),
+     * otherwise a cached pool of daemon threads.
+     */
+    private static Executor defaultAsyncExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "dotnet4j-io-async");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /** @return the executor which runs the default asynchronous operations */
+    public static Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * @param executor runs the default asynchronous operations of all streams,
+     *            e.g. {@code Executors.newVirtualThreadPerTaskExecutor()}
+     */
+    public static void setAsyncExecutor(Executor executor) {
+        if (executor == null)
+            throw new NullPointerException("executor");
+        asyncExecutor = executor;
+    }
+
     public abstract boolean canRead();
 
     public abstract boolean canSeek();
@@ -48,24 +101,52 @@ public abstract class Stream implements Closeable, AutoCloseable {
         throw new RuntimeException("timeout not supported");
     }
 
+    /**
+     * Copies the rest of this stream. The buffer size is adapted to the
+     * remaining length when this stream is seekable, some streams override
+     * {@link #copyTo(Stream, int)} with faster paths.
+     */
     public void copyTo(Stream destination) {
-        copyTo(destination, 2048);
+        copyTo(destination, getCopyBufferSize());
     }
 
     public void copyTo(Stream destination, int bufferSize) {
         if (destination == null)
             throw new RuntimeException("destination is null");
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("bufferSize is not positive");
         if (!this.canRead())
             throw new RuntimeException("source is not readable");
         if (!destination.canWrite())
             throw new RuntimeException("destination is not writeable");
 
-        byte[] buffer = new byte[bufferSize];
-        int lastBlockSize = 0;
-        do {
-            lastBlockSize = read(buffer, 0, bufferSize);
-            destination.write(buffer, 0, lastBlockSize);
-        } while (lastBlockSize != 0);
+        byte[] buffer = ArrayPool.getShared().rent(bufferSize);
+        try {
+            int lastBlockSize;
+            while ((lastBlockSize = read(buffer, 0, bufferSize)) > 0) {
+                destination.write(buffer, 0, lastBlockSize);
+            }
+        } finally {
+            ArrayPool.getShared().returnArray(buffer);
+        }
+    }
+
+    /**
+     * @return {@link #DefaultCopyBufferSize} or less when the remaining of a
+     *         seekable stream is shorter
+     */
+    private int getCopyBufferSize() {
+        int bufferSize = DefaultCopyBufferSize;
+        if (canSeek()) {
+            long remaining = getLength() - getPosition();
+            if (remaining <= 0) {
+                // the length may be changed while copying, a small buffer is enough to check it
+                bufferSize = 1;
+            } else if (remaining < bufferSize) {
+                bufferSize = (int) remaining;
+            }
+        }
+        return bufferSize;
     }
 
     @Override
@@ -90,19 +171,251 @@ public abstract class Stream implements Closeable, AutoCloseable {
      * of the stream has been reached.
      */
     public int readByte() {
-        byte[] one = new byte[1];
+        byte[] one = oneByte();
         int result = read(one, 0, 1);
         if (result == 0)
             return -1;
         return one[0] & 0xff;
     }
 
+    /**
+     * Reads bytes into the remaining of {@code dst}, the buffer position is
+     * advanced by the number of bytes read.
+     * The default implementation bridges to {@link #read(byte[], int, int)},
+     * through a pooled temporary array when {@code dst} has no accessible array.
+     *
+     * @return The total number of bytes read into the buffer, or zero (0) if
+     *         the end of the stream has been reached.
+     */
+    public int read(ByteBuffer dst) {
+        int length = dst.remaining();
+        if (length == 0)
+            return 0;
+        if (dst.hasArray()) {
+            int r = read(dst.array(), dst.arrayOffset() + dst.position(), length);
+            dst.position(dst.position() + r);
+            return r;
+        }
+        byte[] buffer = ArrayPool.getShared().rent(Math.min(length, BridgeBufferSize));
+        try {
+            int r = read(buffer, 0, Math.min(length, BridgeBufferSize));
+            dst.put(buffer, 0, r);
+            return r;
+        } finally {
+            ArrayPool.getShared().returnArray(buffer);
+        }
+    }
+
+    /**
+     * Reads bytes into the remaining of {@code dst} starting at the given
+     * stream position. The position of this stream is not changed.
+     * The default implementation saves and restores the position around
+     * {@link #read(ByteBuffer)}, so the stream must be seekable.
+     *
+     * @return The total number of bytes read into the buffer, or zero (0) if
+     *         the position is at or beyond the end of the stream.
+     */
+    public int read(ByteBuffer dst, long position) {
+        if (position < 0)
+            throw new IllegalArgumentException("position is negative");
+        if (!canSeek())
+            throw new UnsupportedOperationException("stream is not seekable");
+
+        synchronized (this) {
+            long current = getPosition();
+            try {
+                setPosition(position);
+                return read(dst);
+            } finally {
+                setPosition(current);
+            }
+        }
+    }
+
     public abstract void write(byte[] buffer, int offset, int count);
 
+    /**
+     * Writes all the remaining of {@code src}, the buffer position is advanced
+     * to its limit.
+     * The default implementation bridges to {@link #write(byte[], int, int)},
+     * through a pooled temporary array when {@code src} has no accessible array.
+     */
+    public void write(ByteBuffer src) {
+        int length = src.remaining();
+        if (length == 0)
+            return;
+        if (src.hasArray()) {
+            write(src.array(), src.arrayOffset() + src.position(), length);
+            src.position(src.limit());
+            return;
+        }
+        byte[] buffer = ArrayPool.getShared().rent(Math.min(length, BridgeBufferSize));
+        try {
+            while (src.hasRemaining()) {
+                int count = Math.min(src.remaining(), BridgeBufferSize);
+                src.get(buffer, 0, count);
+                write(buffer, 0, count);
+            }
+        } finally {
+            ArrayPool.getShared().returnArray(buffer);
+        }
+    }
+
+    /**
+     * Writes all the remaining of {@code src} starting at the given stream
+     * position. The position of this stream is not changed.
+     * The default implementation saves and restores the position around
+     * {@link #write(ByteBuffer)}, so the stream must be seekable.
+     */
+    public void write(ByteBuffer src, long position) {
+        if (position < 0)
+            throw new IllegalArgumentException("position is negative");
+        if (!canSeek())
+            throw new UnsupportedOperationException("stream is not seekable");
+
+        synchronized (this) {
+            long current = getPosition();
+            try {
+                setPosition(position);
+                write(src);
+            } finally {
+                setPosition(current);
+            }
+        }
+    }
+
     public void writeByte(byte value) {
-        write(new byte[] {
-            value
-        }, 0, 1);
+        byte[] one = oneByte();
+        one[0] = value;
+        write(one, 0, 1);
+    }
+
+    /** scratch array for the default single byte methods, not to allocate per call */
+    private transient byte[] oneByte;
+
+    private byte[] oneByte() {
+        if (oneByte == null)
+            oneByte = new byte[1];
+        return oneByte;
+    }
+
+    /**
+     * Runs {@code task} on the {@link #getAsyncExecutor() async executor}.
+     * When the returned future is cancelled before the task starts, the task
+     * is never run.
+     */
+    protected static <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            asyncExecutor.execute(() -> {
+                if (future.isDone())
+                    return;
+                try {
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Reads bytes at the given stream position without moving the position of
+     * this stream, so that several threads can read different regions of one
+     * stream as long as the implementation supports it.
+     * The default implementation delegates to {@link #read(ByteBuffer, long)}.
+     *
+     * @return The total number of bytes read into the buffer, or zero (0) if
+     *         the position is at or beyond the end of the stream.
+     */
+    public int readAt(long position, byte[] buffer, int offset, int count) {
+        return read(ByteBuffer.wrap(buffer, offset, count), position);
+    }
+
+    /**
+     * Writes bytes at the given stream position without moving the position
+     * of this stream.
+     * The default implementation delegates to {@link #write(ByteBuffer, long)}.
+     */
+    public void writeAt(long position, byte[] buffer, int offset, int count) {
+        write(ByteBuffer.wrap(buffer, offset, count), position);
+    }
+
+    /**
+     * Asynchronous version of {@link #read(byte[], int, int)}.
+     * Cancel the returned future to abandon the operation if it has not been
+     * started yet.
+     *
+     * @return completes with the total number of bytes read into the buffer,
+     *         or zero (0) if the end of the stream has been reached.
+     */
+    public CompletableFuture<Integer> readAsync(byte[] buffer, int offset, int count) {
+        return supplyAsync(() -> read(buffer, offset, count));
+    }
+
+    /**
+     * Asynchronous version of {@link #write(byte[], int, int)}.
+     * Cancel the returned future to abandon the operation if it has not been
+     * started yet.
+     */
+    public CompletableFuture<Void> writeAsync(byte[] buffer, int offset, int count) {
+        return supplyAsync(() -> {
+            write(buffer, offset, count);
+            return null;
+        });
+    }
+
+    /** Asynchronous version of {@link #flush()}. */
+    public CompletableFuture<Void> flushAsync() {
+        return supplyAsync(() -> {
+            flush();
+            return null;
+        });
+    }
+
+    /** Asynchronous version of {@link #copyTo(Stream)}. */
+    public CompletableFuture<Void> copyToAsync(Stream destination) {
+        return copyToAsync(destination, getCopyBufferSize());
+    }
+
+    /**
+     * Asynchronous version of {@link #copyTo(Stream, int)}.
+     * Cancel the returned future to stop copying, it is checked before every
+     * block.
+     */
+    public CompletableFuture<Void> copyToAsync(Stream destination, int bufferSize) {
+        if (destination == null)
+            throw new NullPointerException("destination");
+        if (bufferSize <= 0)
+            throw new IllegalArgumentException("bufferSize is not positive");
+        if (!this.canRead())
+            throw new UnsupportedOperationException("source is not readable");
+        if (!destination.canWrite())
+            throw new UnsupportedOperationException("destination is not writeable");
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            asyncExecutor.execute(() -> {
+                byte[] buffer = ArrayPool.getShared().rent(bufferSize);
+                try {
+                    int r;
+                    while (!future.isDone() && (r = read(buffer, 0, bufferSize)) > 0) {
+                        destination.write(buffer, 0, r);
+                    }
+                    future.complete(null);
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    ArrayPool.getShared().returnArray(buffer);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
     }
 
     @Contract("null -> fail")
@@ -114,4 +427,21 @@ public abstract class Stream implements Closeable, AutoCloseable {
 
         return new SyncStream(stream);
     }
+
+    /**
+     * Unlike {@link #synchronize(Stream)}, threads do not share the position,
+     * reads and writes of different threads run in parallel.
+     *
+     * @param stream must be seekable
+     * @see ConcurrentStream
+     */
+    @Contract("null -> fail")
+    public static Stream concurrent(Stream stream) {
+        if (stream == null)
+            throw new RuntimeException("stream is null");
+        if (stream instanceof ConcurrentStream)
+            return stream;
+
+        return new ConcurrentStream(stream);
+    }
 }
@@ -13,6 +13,7 @@ class SyncStream extends Stream implements Closeable
     public SyncStream(Stream stream) {
         if (stream == null)
             throw new RuntimeException("stream is null");
+        _stream = stream;
     }
 
     @Override
@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * UnmanagedMemoryStream.
+ * <p>
+ * A Stream over memory outside of the java heap, i.e. direct {@link ByteBuffer}s.
+ * A single buffer is limited to 2GB, so the memory is given as segments, all
+ * the segments but the last one must have the same capacity. Positions and
+ * the length are {@code long}, the length can be changed within the capacity.
+ * <p>
+ * The positional methods ({@link #readAt(long, byte[], int, int)} etc.) do not
+ * use the position, so they can be called from several threads for different
+ * regions. Writes which extend the length are serialized with each other and
+ * with {@link #setLength(long)}, the others do not take any lock.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class UnmanagedMemoryStream extends Stream {
+
+    /** the segment size used by {@link #allocate(long)}, 1GB */
+    public static final int MaxSegmentSize = 1 << 30;
+
+    private static final byte[] zeros = new byte[8192];
+
+    /** null when the segments are supplied by {@link #segment(int)} of a subclass */
+    private ByteBuffer[] segments;
+
+    private final int segmentSize;
+
+    private final long capacity;
+
+    /** only increased while the data below it has been written, guarded by lengthLock for writes */
+    private volatile long length;
+
+    private final Object lengthLock = new Object();
+
+    private long position;
+
+    private final FileAccess access;
+
+    private boolean closed;
+
+    /**
+     * Allocates a read-write stream of the given capacity on direct buffers,
+     * the length is zero.
+     */
+    public static UnmanagedMemoryStream allocate(long capacity) {
+        if (capacity < 0)
+            throw new IndexOutOfBoundsException("capacity is negative");
+
+        int count = (int) ((capacity + MaxSegmentSize - 1) / MaxSegmentSize);
+        ByteBuffer[] segments = new ByteBuffer[Math.max(count, 1)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect((int) Math.min(capacity - (long) i * MaxSegmentSize, MaxSegmentSize));
+        }
+        return new UnmanagedMemoryStream(segments, 0, FileAccess.ReadWrite);
+    }
+
+    /**
+     * The whole remaining of the buffer is the length and the capacity,
+     * the stream is read only if the buffer is.
+     */
+    public UnmanagedMemoryStream(ByteBuffer buffer) {
+        this(buffer, buffer.remaining(), buffer.isReadOnly() ? FileAccess.Read : FileAccess.ReadWrite);
+    }
+
+    /**
+     * @param buffer the remaining of it is the capacity
+     * @param length the initial length
+     */
+    public UnmanagedMemoryStream(ByteBuffer buffer, long length, FileAccess access) {
+        this(new ByteBuffer[] { buffer }, length, access);
+    }
+
+    /**
+     * @param segments the remaining of each is used, all but the last one must have the same size
+     * @param length the initial length
+     */
+    public UnmanagedMemoryStream(ByteBuffer[] segments, long length, FileAccess access) {
+        if (segments == null)
+            throw new NullPointerException("segments");
+        if (segments.length == 0)
+            throw new IllegalArgumentException("segments is empty");
+
+        this.segments = new ByteBuffer[segments.length];
+        long capacity = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i] == null)
+                throw new NullPointerException("segments[" + i + "]");
+            if (i > 0 && segments[i - 1].remaining() != segments[0].remaining())
+                throw new IllegalArgumentException("segments[" + (i - 1) + "] differs in size");
+            if (i > 0 && segments[i].remaining() > segments[0].remaining())
+                throw new IllegalArgumentException("segments[" + i + "] is larger than the others");
+            if (access != FileAccess.Read && segments[i].isReadOnly())
+                throw new IllegalArgumentException("segments[" + i + "] is read only");
+            this.segments[i] = segments[i].slice();
+            capacity += segments[i].remaining();
+        }
+        this.segmentSize = Math.max(segments[0].remaining(), 1);
+        this.capacity = capacity;
+        this.access = access;
+        if (length < 0 || length > capacity)
+            throw new IndexOutOfBoundsException("length: " + length);
+        this.length = length;
+    }
+
+    /**
+     * For subclasses which supply the segments by {@link #segment(int)}.
+     *
+     * @param capacity the total size of the segments
+     * @param segmentSize the size of each segment but the last one
+     * @param length the initial length
+     */
+    protected UnmanagedMemoryStream(long capacity, int segmentSize, long length, FileAccess access) {
+        if (capacity < 0)
+            throw new IndexOutOfBoundsException("capacity is negative");
+        if (segmentSize <= 0)
+            throw new IllegalArgumentException("segmentSize is not positive");
+        if (length < 0 || length > capacity)
+            throw new IndexOutOfBoundsException("length: " + length);
+
+        this.capacity = capacity;
+        this.segmentSize = segmentSize;
+        this.length = length;
+        this.access = access;
+    }
+
+    /**
+     * Returns the segment, the position and the limit of it must not be changed
+     * by the caller. Subclasses which use the protected constructor must override
+     * this.
+     *
+     * @param index 0 origin
+     */
+    protected ByteBuffer segment(int index) {
+        return segments[index];
+    }
+
+    /** @return the maximum length */
+    public long getCapacity() {
+        ensureNotClosed();
+        return capacity;
+    }
+
+    private void ensureNotClosed() {
+        if (closed)
+            throw new dotnet4j.io.IOException("object disposed");
+    }
+
+    private void ensureReadable() {
+        ensureNotClosed();
+        if (access == FileAccess.Write)
+            throw new UnsupportedOperationException("stream is not readable");
+    }
+
+    private void ensureWriteable() {
+        ensureNotClosed();
+        if (access == FileAccess.Read)
+            throw new UnsupportedOperationException("stream is not writeable");
+    }
+
+    @Override
+    public boolean canRead() {
+        return !closed && access != FileAccess.Write;
+    }
+
+    @Override
+    public boolean canSeek() {
+        return !closed;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return !closed && access != FileAccess.Read;
+    }
+
+    @Override
+    public long getLength() {
+        ensureNotClosed();
+        return length;
+    }
+
+    @Override
+    public long getPosition() {
+        ensureNotClosed();
+        return position;
+    }
+
+    @Override
+    public void setPosition(long value) {
+        if (value < 0)
+            throw new IndexOutOfBoundsException("value is negative");
+        ensureNotClosed();
+
+        position = value;
+    }
+
+    @Override
+    public long seek(long offset, SeekOrigin origin) {
+        ensureNotClosed();
+
+        long newPosition;
+        switch (origin) {
+        case Begin:
+            newPosition = offset;
+            break;
+        case Current:
+            newPosition = position + offset;
+            break;
+        case End:
+            newPosition = length + offset;
+            break;
+        default:
+            throw new IllegalArgumentException("origin: " + origin);
+        }
+        if (newPosition < 0)
+            throw new dotnet4j.io.IOException("invalid value");
+
+        position = newPosition;
+        return position;
+    }
+
+    /** the extended region is zero filled */
+    @Override
+    public void setLength(long value) {
+        if (value < 0)
+            throw new IndexOutOfBoundsException("value is negative");
+        ensureWriteable();
+        if (value > capacity)
+            throw new dotnet4j.io.IOException("unable to expand length beyond the capacity: " + capacity);
+
+        synchronized (lengthLock) {
+            if (value > length)
+                fill(length, value - length);
+            length = value;
+        }
+        if (position > value)
+            position = value;
+    }
+
+    @Override
+    public void flush() {
+        ensureNotClosed();
+    }
+
+    /** zero fills the region */
+    private void fill(long position, long count) {
+        while (count > 0) {
+            int size = (int) Math.min(count, zeros.length);
+            transfer(position, ByteBuffer.wrap(zeros, 0, size), true);
+            position += size;
+            count -= size;
+        }
+    }
+
+    /**
+     * Copies between the segments and {@code buffer}, the buffer position is
+     * advanced.
+     *
+     * @param toStream true: buffer to the segments, false: the segments to buffer
+     */
+    private void transfer(long position, ByteBuffer buffer, boolean toStream) {
+        int limit = buffer.limit();
+        try {
+            while (buffer.position() < limit) {
+                ByteBuffer segment = segment((int) (position / segmentSize)).duplicate();
+                int offset = (int) (position % segmentSize);
+                int size = Math.min(limit - buffer.position(), segment.capacity() - offset);
+                segment.limit(offset + size).position(offset);
+                buffer.limit(buffer.position() + size);
+                if (toStream)
+                    segment.put(buffer);
+                else
+                    buffer.put(segment);
+                position += size;
+            }
+        } finally {
+            buffer.limit(limit);
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        int n = readAt(position, buffer, offset, count);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+        int n = read(dst, position);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int readAt(long position, byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count");
+        if (buffer.length - offset < count)
+            throw new IllegalArgumentException("buffer.length - offset <= count");
+
+        return read(ByteBuffer.wrap(buffer, offset, count), position);
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) {
+        if (position < 0)
+            throw new IndexOutOfBoundsException("position is negative");
+        ensureReadable();
+
+        long available = length - position;
+        if (available <= 0)
+            return 0;
+        int n = (int) Math.min(available, dst.remaining());
+        int limit = dst.limit();
+        dst.limit(dst.position() + n);
+        try {
+            transfer(position, dst, false);
+        } finally {
+            dst.limit(limit);
+        }
+        return n;
+    }
+
+    @Override
+    public int readByte() {
+        ensureReadable();
+
+        if (position >= length)
+            return -1;
+        int b = segment((int) (position / segmentSize)).get((int) (position % segmentSize)) & 0xff;
+        position++;
+        return b;
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int count) {
+        writeAt(position, buffer, offset, count);
+        position += count;
+    }
+
+    @Override
+    public void write(ByteBuffer src) {
+        int n = src.remaining();
+        write(src, position);
+        position += n;
+    }
+
+    @Override
+    public void writeAt(long position, byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count");
+        if (buffer.length - offset < count)
+            throw new IllegalArgumentException("buffer.length - offset <= count");
+
+        write(ByteBuffer.wrap(buffer, offset, count), position);
+    }
+
+    /** when the position is beyond the length, the gap is zero filled */
+    @Override
+    public void write(ByteBuffer src, long position) {
+        if (position < 0)
+            throw new IndexOutOfBoundsException("position is negative");
+        ensureWriteable();
+        long end = position + src.remaining();
+        if (end > capacity)
+            throw new dotnet4j.io.IOException("unable to expand length beyond the capacity: " + capacity);
+
+        if (end <= length) {
+            transfer(position, src, true);
+            return;
+        }
+        // the gap is filled and the length is extended by one writer at a time
+        synchronized (lengthLock) {
+            if (position > length)
+                fill(length, position - length);
+            transfer(position, src, true);
+            if (end > length)
+                length = end;
+        }
+    }
+
+    @Override
+    public void writeByte(byte value) {
+        ensureWriteable();
+        if (position >= capacity)
+            throw new dotnet4j.io.IOException("unable to expand length beyond the capacity: " + capacity);
+
+        if (position < length) {
+            segment((int) (position / segmentSize)).put((int) (position % segmentSize), value);
+        } else {
+            synchronized (lengthLock) {
+                if (position > length)
+                    fill(length, position - length);
+                segment((int) (position / segmentSize)).put((int) (position % segmentSize), value);
+                if (position + 1 > length)
+                    length = position + 1;
+            }
+        }
+        position++;
+    }
+
+    /** the segments are released to the garbage collector */
+    @Override
+    public void close() throws java.io.IOException {
+        segments = null;
+        closed = true;
+    }
+}
+
+/* */
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import dotnet4j.buffers.ArrayPool;
+
+
+/**
+ * WriteBehindStream.
+ * <p>
+ * A write only decorator which copies the written bytes into pooled blocks
+ * and writes the full blocks to the wrapped stream on the
+ * {@link Stream#getAsyncExecutor() async executor}, so that the work of the
+ * caller (e.g. compression) and the I/O of the wrapped stream overlap.
+ * <p>
+ * At most {@code depth} blocks of {@code blockSize} wait to be written, a
+ * write blocks while the queue is full. {@link #flush()} waits until all the
+ * blocks are written and then flushes the wrapped stream. An error of the
+ * background write is thrown as {@link dotnet4j.io.IOException} by the next
+ * write, flush or close, and by all the calls after them, the blocks not
+ * written yet are dropped.
+ * <p>
+ * The wrapped stream must not be used except through this stream.
+ * This class is not thread safe, like the other streams.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class WriteBehindStream extends Stream {
+
+    /** 64KB */
+    public static final int DefaultBlockSize = 64 * 1024;
+
+    public static final int DefaultDepth = 4;
+
+    /** a block to be written, the array is from the pool */
+    private static final class Block {
+        final byte[] data;
+        int length;
+
+        Block(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    private Stream stream;
+
+    private final int blockSize;
+
+    private final int depth;
+
+    /** the block being filled, only touched by the caller */
+    private Block current;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition changed = lock.newCondition();
+
+    /** guarded by lock */
+    private final ArrayDeque<Block> queue = new ArrayDeque<>();
+
+    /** a write task is running, guarded by lock */
+    private boolean writing;
+
+    /** the error of the background write, guarded by lock */
+    private Throwable error;
+
+    private long position;
+
+    public WriteBehindStream(Stream stream) {
+        this(stream, DefaultBlockSize, DefaultDepth);
+    }
+
+    /**
+     * @param blockSize the size of a write of the wrapped stream
+     * @param depth the maximum number of blocks waiting to be written
+     */
+    public WriteBehindStream(Stream stream, int blockSize, int depth) {
+        if (stream == null)
+            throw new NullPointerException("stream");
+        if (blockSize <= 0)
+            throw new IllegalArgumentException("blockSize is not positive");
+        if (depth <= 0)
+            throw new IllegalArgumentException("depth is not positive");
+        if (!stream.canWrite())
+            throw new IllegalArgumentException("stream is not writable");
+
+        this.stream = stream;
+        this.blockSize = blockSize;
+        this.depth = depth;
+    }
+
+    private void ensureNotClosed() {
+        if (stream == null)
+            throw new dotnet4j.io.IOException("stream is closed");
+    }
+
+    @Override
+    public boolean canRead() {
+        return false;
+    }
+
+    @Override
+    public boolean canSeek() {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return stream != null;
+    }
+
+    @Override
+    public long getLength() {
+        throw new UnsupportedOperationException("stream is not seekable");
+    }
+
+    /** @return the number of bytes written to this stream */
+    @Override
+    public long getPosition() {
+        ensureNotClosed();
+        return position;
+    }
+
+    @Override
+    public void setPosition(long value) {
+        throw new UnsupportedOperationException("stream is not seekable");
+    }
+
+    @Override
+    public long seek(long offset, SeekOrigin origin) {
+        throw new UnsupportedOperationException("stream is not seekable");
+    }
+
+    @Override
+    public void setLength(long value) {
+        throw new UnsupportedOperationException("stream is not seekable");
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        throw new UnsupportedOperationException("stream is write only");
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset");
+        if (count < 0)
+            throw new IndexOutOfBoundsException("count");
+        if (buffer.length - offset < count)
+            throw new IllegalArgumentException("buffer.length - offset <= count");
+        ensureNotClosed();
+        checkError();
+
+        while (count > 0) {
+            if (current == null)
+                current = new Block(ArrayPool.getShared().rent(blockSize));
+            int n = Math.min(blockSize - current.length, count);
+            System.arraycopy(buffer, offset, current.data, current.length, n);
+            current.length += n;
+            offset += n;
+            count -= n;
+            position += n;
+            if (current.length == blockSize)
+                submitCurrent();
+        }
+    }
+
+    @Override
+    public void writeByte(byte value) {
+        ensureNotClosed();
+        checkError();
+
+        if (current == null)
+            current = new Block(ArrayPool.getShared().rent(blockSize));
+        current.data[current.length++] = value;
+        position++;
+        if (current.length == blockSize)
+            submitCurrent();
+    }
+
+    /** queues the current block, waits while the queue is full */
+    private void submitCurrent() {
+        Block block = current;
+        current = null;
+        lock.lock();
+        try {
+            while (queue.size() >= depth && error == null) {
+                changed.awaitUninterruptibly();
+            }
+            if (error != null) {
+                release(block);
+                throw new dotnet4j.io.IOException("background write failed", error);
+            }
+            queue.add(block);
+            if (!writing) {
+                writing = true;
+                try {
+                    getAsyncExecutor().execute(this::writeBlocks);
+                } catch (RejectedExecutionException e) {
+                    writing = false;
+                    error = e;
+                    queue.clear();
+                    release(block);
+                    throw new dotnet4j.io.IOException("background write failed", e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** runs on the async executor, writes blocks until the queue is empty */
+    private void writeBlocks() {
+        Stream stream = this.stream;
+        while (true) {
+            Block block;
+            lock.lock();
+            try {
+                block = queue.poll();
+                if (block == null) {
+                    writing = false;
+                    changed.signalAll();
+                    return;
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            Throwable t = null;
+            try {
+                stream.write(block.data, 0, block.length);
+            } catch (Throwable e) {
+                t = e;
+            }
+            release(block);
+
+            if (t != null) {
+                lock.lock();
+                try {
+                    error = t;
+                    for (Block b : queue) {
+                        release(b);
+                    }
+                    queue.clear();
+                    writing = false;
+                    changed.signalAll();
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /** @throws dotnet4j.io.IOException the background write has failed */
+    private void checkError() {
+        lock.lock();
+        try {
+            if (error != null)
+                throw new dotnet4j.io.IOException("background write failed", error);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** queues the current block and waits until all the blocks are written */
+    private void drain() {
+        if (current != null) {
+            if (current.length > 0) {
+                submitCurrent();
+            } else {
+                release(current);
+                current = null;
+            }
+        }
+        lock.lock();
+        try {
+            while (writing || !queue.isEmpty()) {
+                changed.awaitUninterruptibly();
+            }
+            if (error != null)
+                throw new dotnet4j.io.IOException("background write failed", error);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void release(Block block) {
+        if (block != null)
+            ArrayPool.getShared().returnArray(block.data);
+    }
+
+    /** writes all the bytes written so far to the wrapped stream and flushes it */
+    @Override
+    public void flush() {
+        ensureNotClosed();
+
+        drain();
+        stream.flush();
+    }
+
+    /** the wrapped stream is closed even if the pending writes fail */
+    @Override
+    public void close() throws java.io.IOException {
+        if (stream == null)
+            return;
+        try {
+            drain();
+            stream.flush();
+        } finally {
+            lock.lock();
+            try {
+                // a failed drain may leave the background write running
+                while (writing) {
+                    changed.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+            release(current);
+            current = null;
+            try {
+                stream.close();
+            } finally {
+                stream = null;
+            }
+        }
+    }
+}
+
+/* */
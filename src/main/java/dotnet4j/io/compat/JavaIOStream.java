@@ -180,8 +180,12 @@ public class JavaIOStream extends Stream {
             throw new dotnet4j.io.IOException("closed");
         }
 
-        super.writeByte(value);
-        position++;
+        try {
+            os.write(value);
+            position++;
+        } catch (IOException e) {
+            throw new dotnet4j.io.IOException(e);
+        }
     }
 }
 
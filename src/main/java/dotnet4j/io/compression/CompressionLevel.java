@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.util.zip.Deflater;
+
+
+/**
+ * CompressionLevel.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public enum CompressionLevel {
+    /** balanced between the speed and the size */
+    Optimal(Deflater.DEFAULT_COMPRESSION),
+    Fastest(Deflater.BEST_SPEED),
+    NoCompression(Deflater.NO_COMPRESSION),
+    SmallestSize(Deflater.BEST_COMPRESSION);
+
+    /** the level for {@link Deflater} */
+    final int level;
+
+    CompressionLevel(int level) {
+        this.level = level;
+    }
+}
+
+/* */
@@ -0,0 +1,446 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.util.Arrays;
+
+import dotnet4j.buffers.ArrayPool;
+import dotnet4j.io.Stream;
+
+
+/**
+ * DeflateDecoder.
+ * <p>
+ * A raw deflate (RFC 1951) decoder in java, unlike {@link java.util.zip.Inflater}
+ * it tells the position of the input in bits and can resume from a block
+ * boundary with the 32KB window, which are needed for random access.
+ * {@link #inflate(byte[], int, int)} returns at the end of each block so that
+ * the caller can take a checkpoint there.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+final class DeflateDecoder {
+
+    /** 32KB, the maximum distance */
+    static final int WindowSize = 32 * 1024;
+
+    private static final int WindowMask = WindowSize - 1;
+
+    private static final int InputBufferSize = 64 * 1024;
+
+    private static final int MaxBits = 15;
+
+    /** the order of the code length code lengths */
+    private static final int[] codeLengthOrder = {
+        16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15
+    };
+
+    private static final int[] lengthBase = {
+        3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31,
+        35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258
+    };
+
+    private static final int[] lengthExtra = {
+        0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2,
+        3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0
+    };
+
+    private static final int[] distanceBase = {
+        1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193,
+        257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097, 6145,
+        8193, 12289, 16385, 24577
+    };
+
+    private static final int[] distanceExtra = {
+        0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6,
+        7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13
+    };
+
+    /**
+     * a lookup table of a canonical huffman code indexed by the next
+     * {@link #bits} input bits, an entry is {@code symbol << 4 | length},
+     * zero for an invalid code.
+     */
+    private static final class Huffman {
+        final int[] table;
+        int bits;
+
+        Huffman(int size) {
+            table = new int[size];
+        }
+
+        /** @throws dotnet4j.io.IOException the lengths are over subscribed */
+        void build(int[] lengths, int offset, int count) {
+            int[] counts = new int[MaxBits + 1];
+            int maxLength = 0;
+            for (int i = 0; i < count; i++) {
+                int length = lengths[offset + i];
+                counts[length]++;
+                maxLength = Math.max(maxLength, length);
+            }
+            counts[0] = 0;
+            int left = 1;
+            for (int length = 1; length <= MaxBits; length++) {
+                left <<= 1;
+                left -= counts[length];
+                if (left < 0)
+                    throw new dotnet4j.io.IOException("invalid data: over subscribed code");
+            }
+
+            int[] next = new int[MaxBits + 1];
+            for (int length = 1, code = 0; length <= MaxBits; length++) {
+                code = (code + counts[length - 1]) << 1;
+                next[length] = code;
+            }
+
+            bits = Math.max(maxLength, 1);
+            int size = 1 << bits;
+            Arrays.fill(table, 0, size, 0);
+            for (int symbol = 0; symbol < count; symbol++) {
+                int length = lengths[offset + symbol];
+                if (length == 0)
+                    continue;
+                int reversed = Integer.reverse(next[length]++) >>> (32 - length);
+                int entry = symbol << 4 | length;
+                for (int i = reversed; i < size; i += 1 << length) {
+                    table[i] = entry;
+                }
+            }
+        }
+    }
+
+    private static final Huffman fixedLiteral = new Huffman(1 << 9);
+
+    private static final Huffman fixedDistance = new Huffman(1 << 5);
+
+    static {
+        int[] lengths = new int[288];
+        for (int i = 0; i < 144; i++)
+            lengths[i] = 8;
+        for (int i = 144; i < 256; i++)
+            lengths[i] = 9;
+        for (int i = 256; i < 280; i++)
+            lengths[i] = 7;
+        for (int i = 280; i < 288; i++)
+            lengths[i] = 8;
+        fixedLiteral.build(lengths, 0, 288);
+        Arrays.fill(lengths, 0, 30, 5);
+        fixedDistance.build(lengths, 0, 30);
+    }
+
+    private enum State {
+        /** at a block boundary */
+        Header,
+        Stored,
+        Codes,
+        Done
+    }
+
+    private final Stream input;
+
+    private byte[] in;
+
+    private int inPos;
+
+    private int inLength;
+
+    /** the input position of in[0], relative to the origin */
+    private long inBase;
+
+    private long bitBuffer;
+
+    private int bitCount;
+
+    private final byte[] window = new byte[WindowSize];
+
+    private int windowPos;
+
+    private long outputPosition;
+
+    private State state = State.Header;
+
+    private boolean lastBlock;
+
+    private int storedRemaining;
+
+    private int copyLength;
+
+    private int copyDistance;
+
+    private final Huffman dynamicLiteral = new Huffman(1 << MaxBits);
+
+    private final Huffman dynamicDistance = new Huffman(1 << MaxBits);
+
+    private final Huffman codeLength = new Huffman(1 << 7);
+
+    private final int[] lengths = new int[288 + 32];
+
+    private Huffman literal;
+
+    private Huffman distance;
+
+    /** @param input read from its current position, which is the origin */
+    DeflateDecoder(Stream input) {
+        this.input = input;
+        this.in = ArrayPool.getShared().rent(InputBufferSize);
+    }
+
+    /** @return the end of the last block is reached */
+    boolean isFinished() {
+        return state == State.Done;
+    }
+
+    /** @return between two blocks, where {@link #restore} can resume */
+    boolean isAtBlockBoundary() {
+        return state == State.Header;
+    }
+
+    /** @return the position of the next input bit, relative to the origin */
+    long getBitPosition() {
+        return (inBase + inPos) * 8 - bitCount;
+    }
+
+    long getOutputPosition() {
+        return outputPosition;
+    }
+
+    /** @return a copy of the last 32KB (or less at the beginning) of the output */
+    byte[] getWindow() {
+        int n = (int) Math.min(outputPosition, WindowSize);
+        byte[] result = new byte[n];
+        int start = (windowPos - n) & WindowMask;
+        int first = Math.min(n, WindowSize - start);
+        System.arraycopy(window, start, result, 0, first);
+        System.arraycopy(window, 0, result, first, n - first);
+        return result;
+    }
+
+    /**
+     * resumes at a block boundary, the input stream must have been positioned
+     * at the byte including the bit position.
+     */
+    void restore(long bitPosition, byte[] window, long outputPosition) {
+        inBase = bitPosition / 8;
+        inPos = 0;
+        inLength = 0;
+        bitBuffer = 0;
+        bitCount = 0;
+        int skip = (int) (bitPosition % 8);
+        if (skip > 0)
+            bits(skip);
+
+        System.arraycopy(window, 0, this.window, 0, window.length);
+        windowPos = window.length & WindowMask;
+        this.outputPosition = outputPosition;
+        state = State.Header;
+        lastBlock = false;
+        storedRemaining = 0;
+        copyLength = 0;
+    }
+
+    void release() {
+        if (in != null) {
+            ArrayPool.getShared().returnArray(in);
+            in = null;
+        }
+    }
+
+    /** @return false at the end of the input */
+    private boolean refill() {
+        inBase += inLength;
+        inPos = 0;
+        inLength = Math.max(input.read(in, 0, in.length), 0);
+        return inLength > 0;
+    }
+
+    /** @return false at the end of the input, the missing bits are zero */
+    private boolean need(int n) {
+        while (bitCount < n) {
+            if (inPos == inLength && !refill())
+                return false;
+            bitBuffer |= (long) (in[inPos++] & 0xff) << bitCount;
+            bitCount += 8;
+        }
+        return true;
+    }
+
+    private int bits(int n) {
+        if (!need(n))
+            throw new dotnet4j.io.IOException("invalid data: unexpected end of stream");
+        int value = (int) (bitBuffer & ((1L << n) - 1));
+        bitBuffer >>>= n;
+        bitCount -= n;
+        return value;
+    }
+
+    private int decode(Huffman huffman) {
+        need(huffman.bits);
+        int entry = huffman.table[(int) (bitBuffer & ((1L << huffman.bits) - 1))];
+        int length = entry & 0xf;
+        if (length == 0)
+            throw new dotnet4j.io.IOException("invalid data: invalid code");
+        if (length > bitCount)
+            throw new dotnet4j.io.IOException("invalid data: unexpected end of stream");
+        bitBuffer >>>= length;
+        bitCount -= length;
+        return entry >>> 4;
+    }
+
+    /**
+     * @return the number of bytes decoded, less than {@code count} at the end
+     *         of a block or of the stream, may be zero for an empty block.
+     */
+    int inflate(byte[] buffer, int offset, int count) {
+        int start = offset;
+        int end = offset + count;
+        while (offset < end) {
+            switch (state) {
+            case Done:
+                return offset - start;
+            case Header:
+                readHeader();
+                break;
+            case Stored: {
+                int n = Math.min(storedRemaining, end - offset);
+                for (int i = 0; i < n; i++) {
+                    if (bitCount == 0) {
+                        if (inPos == inLength && !refill())
+                            throw new dotnet4j.io.IOException("invalid data: unexpected end of stream");
+                        put(buffer, offset++, in[inPos++]);
+                    } else {
+                        put(buffer, offset++, (byte) bits(8));
+                    }
+                }
+                storedRemaining -= n;
+                if (storedRemaining == 0)
+                    return endBlock(start, offset);
+                break;
+            }
+            case Codes:
+                if (copyLength > 0) {
+                    int n = Math.min(copyLength, end - offset);
+                    for (int i = 0; i < n; i++) {
+                        put(buffer, offset++, window[(windowPos - copyDistance) & WindowMask]);
+                    }
+                    copyLength -= n;
+                    break;
+                }
+                int symbol = decode(literal);
+                if (symbol < 256) {
+                    put(buffer, offset++, (byte) symbol);
+                } else if (symbol == 256) {
+                    return endBlock(start, offset);
+                } else {
+                    symbol -= 257;
+                    if (symbol >= 29)
+                        throw new dotnet4j.io.IOException("invalid data: invalid length code");
+                    copyLength = lengthBase[symbol] + bits(lengthExtra[symbol]);
+                    symbol = decode(distance);
+                    if (symbol >= 30)
+                        throw new dotnet4j.io.IOException("invalid data: invalid distance code");
+                    copyDistance = distanceBase[symbol] + bits(distanceExtra[symbol]);
+                    if (copyDistance > outputPosition)
+                        throw new dotnet4j.io.IOException("invalid data: distance too far back");
+                }
+                break;
+            }
+        }
+        return offset - start;
+    }
+
+    private void put(byte[] buffer, int offset, byte value) {
+        buffer[offset] = value;
+        window[windowPos] = value;
+        windowPos = (windowPos + 1) & WindowMask;
+        outputPosition++;
+    }
+
+    private int endBlock(int start, int offset) {
+        state = lastBlock ? State.Done : State.Header;
+        return offset - start;
+    }
+
+    private void readHeader() {
+        lastBlock = bits(1) == 1;
+        int type = bits(2);
+        switch (type) {
+        case 0:
+            // to the byte boundary
+            bits(bitCount & 7);
+            int length = bits(16);
+            int complement = bits(16);
+            if (length != (~complement & 0xffff))
+                throw new dotnet4j.io.IOException("invalid data: stored block length");
+            storedRemaining = length;
+            state = State.Stored;
+            if (length == 0)
+                state = lastBlock ? State.Done : State.Header;
+            break;
+        case 1:
+            literal = fixedLiteral;
+            distance = fixedDistance;
+            state = State.Codes;
+            break;
+        case 2:
+            readDynamicTables();
+            literal = dynamicLiteral;
+            distance = dynamicDistance;
+            state = State.Codes;
+            break;
+        default:
+            throw new dotnet4j.io.IOException("invalid data: invalid block type");
+        }
+    }
+
+    private void readDynamicTables() {
+        int literals = bits(5) + 257;
+        int distances = bits(5) + 1;
+        int codeLengths = bits(4) + 4;
+        if (literals > 286 || distances > 30)
+            throw new dotnet4j.io.IOException("invalid data: too many codes");
+
+        Arrays.fill(lengths, 0, 19, 0);
+        for (int i = 0; i < codeLengths; i++) {
+            lengths[codeLengthOrder[i]] = bits(3);
+        }
+        codeLength.build(lengths, 0, 19);
+
+        int n = 0;
+        while (n < literals + distances) {
+            int symbol = decode(codeLength);
+            if (symbol < 16) {
+                lengths[n++] = symbol;
+                continue;
+            }
+            int value = 0;
+            int repeat;
+            if (symbol == 16) {
+                if (n == 0)
+                    throw new dotnet4j.io.IOException("invalid data: repeat with no first length");
+                value = lengths[n - 1];
+                repeat = 3 + bits(2);
+            } else if (symbol == 17) {
+                repeat = 3 + bits(3);
+            } else {
+                repeat = 11 + bits(7);
+            }
+            if (n + repeat > literals + distances)
+                throw new dotnet4j.io.IOException("invalid data: too many lengths");
+            while (repeat-- > 0) {
+                lengths[n++] = value;
+            }
+        }
+        if (lengths[256] == 0)
+            throw new dotnet4j.io.IOException("invalid data: no end of block code");
+
+        dynamicLiteral.build(lengths, 0, literals);
+        dynamicDistance.build(lengths, literals, distances);
+    }
+}
+
+/* */
@@ -7,51 +7,51 @@
 package dotnet4j.io.compression;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.InflaterInputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
+import dotnet4j.buffers.ArrayPool;
+import dotnet4j.io.SeekOrigin;
 import dotnet4j.io.Stream;
-import dotnet4j.io.compat.JavaIOStream;
-import dotnet4j.io.compat.StreamInputStream;
-import dotnet4j.io.compat.StreamOutputStream;
 
 
 /**
  * DeflateStream.
+ * <p>
+ * Compresses or decompresses with {@link Deflater} and {@link Inflater}
+ * directly, the compressed bytes go through an internal buffer of
+ * {@link #DefaultBufferSize} rented from the {@link ArrayPool}.
  *
  * *** WARNING ***
- * this class decompression needs zip header (0x78, 0x9c)
- * so spec. is different from original C# DeflateStream
+ * by default this class reads and writes the zlib header (0x78, 0x9c)
+ * and trailer, so spec. is different from original C# DeflateStream.
+ * use {@code nowrap} for the raw deflate format of C#.
  *
  * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
  * @version 0.00 2019/09/30 umjammer initial version <br>
  */
-public class DeflateStream extends JavaIOStream {
+public class DeflateStream extends Stream {
 
-    /** */
+    /** 64KB */
+    public static final int DefaultBufferSize = 64 * 1024;
+
+    /** null after closed */
     private Stream stream;
 
-    /** */
-    private static InputStream toInputStream(Stream stream, CompressionMode compressionMode) {
-        if (stream == null) {
-            throw new NullPointerException("stream");
-        }
+    private final CompressionMode mode;
 
-        InputStream is = new StreamInputStream(stream);
-        return compressionMode == CompressionMode.Decompress ? new InflaterInputStream(is) : null;
-    }
+    private final boolean leaveOpen;
 
-    /** */
-    private static OutputStream toOutputStream(Stream stream, CompressionMode compressionMode) {
-        if (stream == null) {
-            throw new NullPointerException("stream");
-        }
+    /** for decompression */
+    private Inflater inflater;
 
-        OutputStream os = new StreamOutputStream(stream);
-        return compressionMode == CompressionMode.Compress ? new DeflaterOutputStream(os) : null;
-    }
+    /** for compression */
+    private Deflater deflater;
+
+    /** compressed bytes */
+    private byte[] buffer;
 
     /** */
     public DeflateStream(Stream stream, CompressionMode compressionMode) {
@@ -60,27 +60,241 @@ public class DeflateStream extends JavaIOStream {
 
     /** */
     public DeflateStream(Stream stream, CompressionMode compressionMode, boolean leaveOpen) {
-        super(toInputStream(stream, compressionMode), toOutputStream(stream, compressionMode), leaveOpen);
+        this(stream, compressionMode, leaveOpen, false);
+    }
+
+    /**
+     * @param nowrap true for the raw deflate format without the zlib header and trailer
+     */
+    public DeflateStream(Stream stream, CompressionMode compressionMode, boolean leaveOpen, boolean nowrap) {
+        this(stream, compressionMode, CompressionLevel.Optimal, leaveOpen, nowrap);
+    }
+
+    /** for compression */
+    public DeflateStream(Stream stream, CompressionLevel compressionLevel) {
+        this(stream, compressionLevel, false);
+    }
+
+    /** for compression */
+    public DeflateStream(Stream stream, CompressionLevel compressionLevel, boolean leaveOpen) {
+        this(stream, compressionLevel, leaveOpen, false);
+    }
+
+    /**
+     * for compression
+     *
+     * @param nowrap true for the raw deflate format without the zlib header and trailer
+     */
+    public DeflateStream(Stream stream, CompressionLevel compressionLevel, boolean leaveOpen, boolean nowrap) {
+        this(stream, CompressionMode.Compress, compressionLevel, leaveOpen, nowrap);
+    }
+
+    /** */
+    private DeflateStream(Stream stream, CompressionMode mode, CompressionLevel level, boolean leaveOpen, boolean nowrap) {
+        if (stream == null)
+            throw new NullPointerException("stream");
+        if (mode == null)
+            throw new NullPointerException("compressionMode");
+        if (level == null)
+            throw new NullPointerException("compressionLevel");
+        if (mode == CompressionMode.Decompress && !stream.canRead())
+            throw new IllegalArgumentException("stream is not readable");
+        if (mode == CompressionMode.Compress && !stream.canWrite())
+            throw new IllegalArgumentException("stream is not writable");
+
         this.stream = stream;
+        this.mode = mode;
+        this.leaveOpen = leaveOpen;
+        if (mode == CompressionMode.Decompress)
+            inflater = new Inflater(nowrap);
+        else
+            deflater = new Deflater(level.level, nowrap);
+        buffer = ArrayPool.getShared().rent(DefaultBufferSize);
+    }
+
+    private void ensureNotClosed() {
+        if (stream == null)
+            throw new dotnet4j.io.IOException("stream is closed");
     }
 
+    @Override
+    public boolean canRead() {
+        return stream != null && mode == CompressionMode.Decompress && stream.canRead();
+    }
+
+    @Override
+    public boolean canSeek() {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return stream != null && mode == CompressionMode.Compress && stream.canWrite();
+    }
+
+    @Override
     public long getLength() {
         throw new UnsupportedOperationException();
     }
 
+    @Override
     public long getPosition() {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    public void close() throws IOException {
-        if (os != null) {
-            // DeflaterOutputStream#flush doesn't flush
-            DeflaterOutputStream.class.cast(os).finish();
+    public void setPosition(long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long seek(long offset, SeekOrigin origin) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setLength(long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * returns as soon as some bytes are decompressed, the base stream is read
+     * only when the inflater needs more input.
+     */
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0 || count < 0 || buffer.length - offset < count)
+            throw new IndexOutOfBoundsException("offset: " + offset + ", count: " + count);
+        ensureNotClosed();
+        if (mode != CompressionMode.Decompress)
+            throw new dotnet4j.io.IOException("stream is for compression");
+        if (count == 0)
+            return 0;
+
+        try {
+            while (true) {
+                int n = inflater.inflate(buffer, offset, count);
+                if (n > 0)
+                    return n;
+                if (inflater.finished())
+                    return 0;
+                if (inflater.needsDictionary())
+                    throw new dotnet4j.io.IOException("a preset dictionary is not supported");
+                if (inflater.needsInput()) {
+                    int r = stream.read(this.buffer, 0, this.buffer.length);
+                    if (r <= 0)
+                        return 0;
+                    inflater.setInput(this.buffer, 0, r);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new dotnet4j.io.IOException("invalid data", e);
+        }
+    }
+
+    /** a buffer without an accessible array is read through a pooled array */
+    @Override
+    public int read(ByteBuffer dst) {
+        if (dst.hasArray())
+            return super.read(dst);
+
+        byte[] scratch = ArrayPool.getShared().rent(Math.min(dst.remaining(), DefaultBufferSize));
+        try {
+            int n = read(scratch, 0, Math.min(dst.remaining(), scratch.length));
+            dst.put(scratch, 0, n);
+            return n;
+        } finally {
+            ArrayPool.getShared().returnArray(scratch);
         }
-        super.close();
-        if (!leaveOpen) {
-            stream.close();
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0 || count < 0 || buffer.length - offset < count)
+            throw new IndexOutOfBoundsException("offset: " + offset + ", count: " + count);
+        ensureNotClosed();
+        if (mode != CompressionMode.Compress)
+            throw new dotnet4j.io.IOException("stream is for decompression");
+        if (count == 0)
+            return;
+
+        deflater.setInput(buffer, offset, count);
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+    }
+
+    /** a buffer without an accessible array is written through a pooled array */
+    @Override
+    public void write(ByteBuffer src) {
+        if (src.hasArray()) {
+            super.write(src);
+            return;
+        }
+
+        byte[] scratch = ArrayPool.getShared().rent(Math.min(src.remaining(), DefaultBufferSize));
+        try {
+            while (src.hasRemaining()) {
+                int count = Math.min(src.remaining(), scratch.length);
+                src.get(scratch, 0, count);
+                write(scratch, 0, count);
+            }
+        } finally {
+            ArrayPool.getShared().returnArray(scratch);
+        }
+    }
+
+    /** @return the number of compressed bytes written to the base stream */
+    private int deflate(int flush) {
+        int n = deflater.deflate(buffer, 0, buffer.length, flush);
+        if (n > 0)
+            stream.write(buffer, 0, n);
+        return n;
+    }
+
+    /**
+     * writes all the input compressed so far to the base stream with
+     * {@link Deflater#SYNC_FLUSH}, so that a reader can decompress them.
+     */
+    @Override
+    public void flush() {
+        ensureNotClosed();
+
+        if (mode == CompressionMode.Compress) {
+            while (deflate(Deflater.SYNC_FLUSH) == buffer.length) {
+                // the output buffer was full, there may be more
+            }
+            stream.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (stream == null)
+            return;
+        try {
+            if (deflater != null) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflate(Deflater.NO_FLUSH);
+                }
+                stream.flush();
+            }
+        } finally {
+            if (deflater != null)
+                deflater.end();
+            if (inflater != null)
+                inflater.end();
+            ArrayPool.getShared().returnArray(buffer);
+            buffer = null;
+            Stream stream = this.stream;
+            this.stream = null;
+            if (!leaveOpen)
+                stream.close();
         }
     }
 }
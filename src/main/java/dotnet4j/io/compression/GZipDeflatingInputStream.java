@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import dotnet4j.buffers.ArrayPool;
+
+
+/**
+ * GZipDeflatingInputStream.
+ * <p>
+ * Reads the wrapped stream and returns it compressed as a gzip member, in the
+ * same call, without any thread or pipe. The output is the same as
+ * {@link java.util.zip.GZIPOutputStream} of the wrapped stream.
+ * <p>
+ * The wrapped stream is not closed, it is shared with the other direction of
+ * {@link GZipStream}.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class GZipDeflatingInputStream extends InputStream {
+
+    /** the gzip header without any optional fields, the same as GZIPOutputStream */
+    private static final byte[] header = {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private InputStream in;
+
+    private final Deflater deflater;
+
+    private final CRC32 crc = new CRC32();
+
+    /** uncompressed bytes */
+    private byte[] buffer;
+
+    /** the header or the trailer to be returned, [pendingPos, pending.length) */
+    private byte[] pending = header;
+
+    private int pendingPos;
+
+    private long size;
+
+    private boolean trailerPending = true;
+
+    /** read has been called, kept after closed */
+    private boolean started;
+
+    private final byte[] one = new byte[1];
+
+    GZipDeflatingInputStream(InputStream in, int level) {
+        if (in == null)
+            throw new NullPointerException("in");
+
+        this.in = in;
+        this.deflater = new Deflater(level, true);
+        this.buffer = ArrayPool.getShared().rent(DeflateStream.DefaultBufferSize);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (in == null)
+            throw new IOException("stream closed");
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(one, 0, 1) == 1 ? one[0] & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (b == null)
+            throw new NullPointerException("b");
+        if (off < 0 || len < 0 || b.length - off < len)
+            throw new IndexOutOfBoundsException("off: " + off + ", len: " + len);
+        ensureOpen();
+        started = true;
+        if (len == 0)
+            return 0;
+
+        while (true) {
+            if (pendingPos < pending.length) {
+                int n = Math.min(pending.length - pendingPos, len);
+                System.arraycopy(pending, pendingPos, b, off, n);
+                pendingPos += n;
+                return n;
+            }
+
+            if (!deflater.finished()) {
+                if (deflater.needsInput()) {
+                    int r = in.read(buffer, 0, buffer.length);
+                    if (r < 0) {
+                        deflater.finish();
+                    } else if (r > 0) {
+                        crc.update(buffer, 0, r);
+                        size += r;
+                        deflater.setInput(buffer, 0, r);
+                    }
+                }
+                int n = deflater.deflate(b, off, len);
+                if (n > 0)
+                    return n;
+                continue;
+            }
+
+            if (!trailerPending)
+                return -1;
+            trailerPending = false;
+            pending = new byte[8];
+            pendingPos = 0;
+            writeInt(pending, 0, (int) crc.getValue());
+            writeInt(pending, 4, (int) size);
+        }
+    }
+
+    /** @return true if this has been read */
+    boolean isStarted() {
+        return started;
+    }
+
+    /** little endian */
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in == null)
+            return;
+        deflater.end();
+        ArrayPool.getShared().returnArray(buffer);
+        buffer = null;
+        in = null;
+    }
+}
+
+/* */
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import dotnet4j.buffers.ArrayPool;
+
+
+/**
+ * GZipInflatingOutputStream.
+ * <p>
+ * Decompresses the gzip bytes written to this and writes the output to the
+ * wrapped stream in the same call, without any thread or pipe. The header and
+ * the trailer may be split across the writes. Concatenated members are read,
+ * and garbage after a member is ignored as
+ * {@link java.util.zip.GZIPInputStream} does.
+ * <p>
+ * The wrapped stream is not closed, it is shared with the other direction of
+ * {@link GZipStream}.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class GZipInflatingOutputStream extends OutputStream {
+
+    // states, the header fields are in the order of the format
+    private static final int Id1 = 0;
+    private static final int Id2 = 1;
+    private static final int Method = 2;
+    private static final int Flags = 3;
+    /** mtime, xfl, os */
+    private static final int Fixed = 4;
+    private static final int ExtraLength = 5;
+    private static final int Extra = 6;
+    private static final int Name = 7;
+    private static final int Comment = 8;
+    private static final int HeaderCrc = 9;
+    private static final int Data = 10;
+    private static final int Trailer = 11;
+    private static final int Garbage = 12;
+
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+
+    private OutputStream out;
+
+    private final Inflater inflater = new Inflater(true);
+
+    private final CRC32 crc = new CRC32();
+
+    /** decompressed bytes */
+    private byte[] buffer;
+
+    private int state = Id1;
+
+    private int flags;
+
+    /** the remaining bytes of the current field */
+    private int count;
+
+    private int extraLength;
+
+    private final byte[] trailer = new byte[8];
+
+    /** the decompressed size of the current member */
+    private long size;
+
+    /** a member has been read */
+    private boolean started;
+
+    private final byte[] one = new byte[1];
+
+    GZipInflatingOutputStream(OutputStream out) {
+        if (out == null)
+            throw new NullPointerException("out");
+
+        this.out = out;
+        this.buffer = ArrayPool.getShared().rent(DeflateStream.DefaultBufferSize);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (out == null)
+            throw new IOException("stream closed");
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        one[0] = (byte) b;
+        write(one, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (b == null)
+            throw new NullPointerException("b");
+        if (off < 0 || len < 0 || b.length - off < len)
+            throw new IndexOutOfBoundsException("off: " + off + ", len: " + len);
+        ensureOpen();
+
+        while (len > 0) {
+            switch (state) {
+            case Data:
+                int used = inflate(b, off, len);
+                off += used;
+                len -= used;
+                break;
+            case Trailer:
+                trailer[8 - count] = b[off++];
+                len--;
+                if (--count == 0)
+                    verifyTrailer();
+                break;
+            case Garbage:
+                return;
+            default:
+                header(b[off++] & 0xff);
+                len--;
+                break;
+            }
+        }
+    }
+
+    /** @return the number of the input bytes consumed */
+    private int inflate(byte[] b, int off, int len) throws IOException {
+        inflater.setInput(b, off, len);
+        try {
+            while (true) {
+                int n = inflater.inflate(buffer, 0, buffer.length);
+                if (n > 0) {
+                    crc.update(buffer, 0, n);
+                    size += n;
+                    out.write(buffer, 0, n);
+                    continue;
+                }
+                if (inflater.finished() || inflater.needsInput())
+                    break;
+                if (inflater.needsDictionary())
+                    throw new IOException("invalid data: a dictionary is needed");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("invalid data", e);
+        }
+        if (inflater.finished()) {
+            state = Trailer;
+            count = trailer.length;
+        }
+        return len - inflater.getRemaining();
+    }
+
+    private void verifyTrailer() throws IOException {
+        int expectedCrc = readInt(trailer, 0);
+        int expectedSize = readInt(trailer, 4);
+        if (expectedCrc != (int) crc.getValue() || expectedSize != (int) size)
+            throw new IOException("invalid data: crc or size mismatch");
+        started = true;
+        state = Id1;
+    }
+
+    /** little endian */
+    private static int readInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xff) | (buffer[offset + 1] & 0xff) << 8 |
+               (buffer[offset + 2] & 0xff) << 16 | (buffer[offset + 3] & 0xff) << 24;
+    }
+
+    /** consumes a byte of the header */
+    private void header(int value) throws IOException {
+        switch (state) {
+        case Id1:
+        case Id2:
+            if (value != (state == Id1 ? 0x1f : 0x8b)) {
+                if (!started)
+                    throw new IOException("invalid data: not in gzip format");
+                state = Garbage;
+                return;
+            }
+            state++;
+            break;
+        case Method:
+            if (value != 8)
+                throw new IOException("invalid data: unsupported compression method: " + value);
+            state = Flags;
+            break;
+        case Flags:
+            flags = value;
+            state = Fixed;
+            count = 6;
+            break;
+        case Fixed:
+            if (--count == 0)
+                next(Fixed);
+            break;
+        case ExtraLength:
+            extraLength |= value << (8 * count);
+            if (++count == 2) {
+                if (extraLength == 0) {
+                    next(Extra);
+                } else {
+                    state = Extra;
+                    count = extraLength;
+                }
+            }
+            break;
+        case Extra:
+            if (--count == 0)
+                next(Extra);
+            break;
+        case Name:
+        case Comment:
+            if (value == 0)
+                next(state);
+            break;
+        case HeaderCrc:
+            if (--count == 0)
+                next(HeaderCrc);
+            break;
+        default:
+            throw new IllegalStateException("state: " + state);
+        }
+    }
+
+    /** moves to the next optional field present after the field, or to the data */
+    private void next(int field) {
+        if (field < ExtraLength && (flags & FEXTRA) != 0) {
+            state = ExtraLength;
+            count = 0;
+            extraLength = 0;
+        } else if (field < Name && (flags & FNAME) != 0) {
+            state = Name;
+        } else if (field < Comment && (flags & FCOMMENT) != 0) {
+            state = Comment;
+        } else if (field < HeaderCrc && (flags & FHCRC) != 0) {
+            state = HeaderCrc;
+            count = 2;
+        } else {
+            state = Data;
+            inflater.reset();
+            crc.reset();
+            size = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        out.flush();
+    }
+
+    /** @throws IOException a member is not complete */
+    @Override
+    public void close() throws IOException {
+        if (out == null)
+            return;
+        try {
+            if (state != Id1 && state != Garbage)
+                throw new IOException("invalid data: unexpected end of gzip stream");
+        } finally {
+            inflater.end();
+            ArrayPool.getShared().returnArray(buffer);
+            buffer = null;
+            out = null;
+        }
+    }
+}
+
+/* */
@@ -12,11 +12,6 @@ import java.io.OutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
-import vavi.io.InputEngine;
-import vavi.io.InputEngineOutputStream;
-import vavi.io.OutputEngine;
-import vavi.io.OutputEngineInputStream;
-
 import dotnet4j.io.Stream;
 import dotnet4j.io.compat.JavaIOStream;
 import dotnet4j.io.compat.StreamInputStream;
@@ -31,66 +26,126 @@ import dotnet4j.io.compat.StreamOutputStream;
  */
 public class GZipStream extends JavaIOStream {
 
-    @SuppressWarnings("resource")
-    static InputStream toInputStream(Stream stream, CompressionMode compressionMode) {
-        try {
-            InputStream is = new StreamInputStream(stream);
-            return compressionMode == CompressionMode.Decompress ? new GZIPInputStream(is)
-                                                                 : new OutputEngineInputStream(new OutputEngine() {
-                                                                     OutputStream out;
-
-                                                                     public void initialize(OutputStream out) throws IOException {
-                                                                         this.out = new GZIPOutputStream(out);
-                                                                     }
-
-                                                                     byte[] buf = new byte[8192];
-
-                                                                     public void execute() throws IOException {
-                                                                         int r = is.read(buf);
-                                                                         out.write(buf, 0, r);
-                                                                     }
-
-                                                                     public void finish() throws IOException {
-                                                                     }
-                                                                 });
-        } catch (IOException e) {
-            throw new dotnet4j.io.IOException(e);
+    /**
+     * creates {@link GZIPInputStream} at the first read, not to read the
+     * header of a stream which is only written in the decompression mode.
+     */
+    private static class LazyGZIPInputStream extends InputStream {
+        final InputStream in;
+        InputStream gzip;
+        LazyGZIPInputStream(InputStream in) {
+            this.in = in;
+        }
+        InputStream gzip() throws IOException {
+            if (gzip == null) {
+                gzip = new GZIPInputStream(in);
+            }
+            return gzip;
+        }
+        @Override
+        public int read() throws IOException {
+            return gzip().read();
+        }
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return gzip().read(b, off, len);
+        }
+        @Override
+        public int available() throws IOException {
+            return gzip().available();
+        }
+        @Override
+        public void close() throws IOException {
+            (gzip != null ? gzip : in).close();
         }
     }
 
-    @SuppressWarnings("resource")
-    static OutputStream toOutputStream(Stream stream, CompressionMode compressionMode) {
-        try {
-            OutputStream os = new StreamOutputStream(stream);
-            return compressionMode == CompressionMode.Compress ? new GZIPOutputStream(os)
-                                                               : new InputEngineOutputStream(new InputEngine() {
-                                                                   InputStream in;
-
-                                                                   public void initialize(InputStream in) throws IOException {
-                                                                   }
+    /**
+     * creates {@link GZIPOutputStream} at the first write, not to write the
+     * header into a stream which is only read in the compression mode.
+     * an empty member is written at closing unless the other direction is used.
+     */
+    private static class LazyGZIPOutputStream extends OutputStream {
+        final OutputStream out;
+        final GZipDeflatingInputStream reader;
+        OutputStream gzip;
+        LazyGZIPOutputStream(OutputStream out, GZipDeflatingInputStream reader) {
+            this.out = out;
+            this.reader = reader;
+        }
+        OutputStream gzip() throws IOException {
+            if (gzip == null) {
+                gzip = new GZIPOutputStream(out);
+            }
+            return gzip;
+        }
+        @Override
+        public void write(int b) throws IOException {
+            gzip().write(b);
+        }
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            gzip().write(b, off, len);
+        }
+        @Override
+        public void flush() throws IOException {
+            (gzip != null ? gzip : out).flush();
+        }
+        @Override
+        public void close() throws IOException {
+            (gzip != null || !reader.isStarted() ? gzip() : out).close();
+        }
+    }
 
-                                                                   byte[] buf = new byte[8192];
+    /**
+     * in the compression mode, reading this returns the base stream compressed.
+     */
+    static InputStream toInputStream(Stream stream, CompressionMode compressionMode) {
+        InputStream is = new StreamInputStream(stream);
+        return compressionMode == CompressionMode.Decompress ? new LazyGZIPInputStream(is)
+                                                             : new GZipDeflatingInputStream(is, CompressionLevel.Optimal.level);
+    }
 
-                                                                   public void execute() throws IOException {
-                                                                       if (in == null) {
-                                                                           this.in = new GZIPInputStream(in);
-                                                                       }
-                                                                       int r = in.read(buf);
-                                                                       os.write(buf, 0, r);
-                                                                   }
+    /**
+     * in the decompression mode, bytes written to this are decompressed into
+     * the base stream.
+     */
+    static OutputStream toOutputStream(Stream stream, CompressionMode compressionMode, InputStream is) {
+        OutputStream os = new StreamOutputStream(stream);
+        return compressionMode == CompressionMode.Compress ? new LazyGZIPOutputStream(os, (GZipDeflatingInputStream) is)
+                                                           : new GZipInflatingOutputStream(os);
+    }
 
-                                                                   public void finish() throws IOException {
-                                                                   }
-                                                               });
-        } catch (IOException e) {
-            throw new dotnet4j.io.IOException(e);
+    /** */
+    static OutputStream toOutputStream(Stream stream, CompressionLevel compressionLevel, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism is not positive");
         }
+
+        OutputStream os = new StreamOutputStream(stream);
+        return new ParallelGZipOutputStream(os, compressionLevel.level, parallelism, getAsyncExecutor());
     }
 
     /**
      */
     public GZipStream(Stream stream, CompressionMode compressionMode) {
-        super(toInputStream(stream, compressionMode), toOutputStream(stream, compressionMode));
+        this(stream, compressionMode, toInputStream(stream, compressionMode));
+    }
+
+    /** the output in the compression mode refers the input */
+    private GZipStream(Stream stream, CompressionMode compressionMode, InputStream is) {
+        super(is, toOutputStream(stream, compressionMode, is));
+    }
+
+    /**
+     * for compression, the blocks of the input are deflated concurrently on
+     * the {@link Stream#getAsyncExecutor() async executor} in the way of pigz,
+     * the output is a single standard gzip member.
+     *
+     * @param parallelism the maximum number of blocks compressed at a time
+     */
+    public GZipStream(Stream stream, CompressionLevel compressionLevel, int parallelism) {
+        super(toInputStream(stream, CompressionMode.Compress), toOutputStream(stream, compressionLevel, parallelism));
     }
 }
 
@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import dotnet4j.buffers.ArrayPool;
+
+
+/**
+ * ParallelGZipOutputStream.
+ * <p>
+ * Writes one gzip member like {@link java.util.zip.GZIPOutputStream}, but
+ * deflates the input in blocks concurrently, in the way of pigz.
+ * Each block is primed with the last 32KB of the previous block as the
+ * dictionary and ends with a sync flush, so the raw deflate outputs are
+ * simply concatenated in order. The CRC32 of the blocks are computed
+ * concurrently too and combined.
+ * <p>
+ * At most {@code parallelism} blocks are compressed at a time, a write
+ * blocks until the oldest block is written when they are all busy.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class ParallelGZipOutputStream extends OutputStream {
+
+    /** 128KB, the same as pigz */
+    static final int DefaultBlockSize = 128 * 1024;
+
+    /** the size of the deflate window */
+    private static final int DictionarySize = 32 * 1024;
+
+    /** the gzip header without any optional fields, the same as GZIPOutputStream */
+    private static final byte[] header = {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    /** a block to be compressed, the arrays are from the pool */
+    private static final class Block {
+        final byte[] input;
+        int length;
+        /** the previous block, its tail is the dictionary */
+        Block previous;
+        boolean last;
+        byte[] output;
+        int outputLength;
+        long crc;
+
+        Block(byte[] input) {
+            this.input = input;
+        }
+    }
+
+    private OutputStream out;
+
+    private final int level;
+
+    private final int parallelism;
+
+    private final int blockSize;
+
+    private final Executor executor;
+
+    /** the block being filled */
+    private Block current;
+
+    /** the last submitted block, the dictionary of the next one */
+    private Block previous;
+
+    /** the blocks being compressed, in order */
+    private final ArrayDeque<CompletableFuture<Block>> pending = new ArrayDeque<>();
+
+    /** idle deflaters to be reused by the tasks */
+    private final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+    /** the combined crc of the blocks written so far */
+    private long crc;
+
+    /** the number of the uncompressed bytes */
+    private long size;
+
+    private boolean headerWritten;
+
+    private boolean finished;
+
+    ParallelGZipOutputStream(OutputStream out, int level, int parallelism, Executor executor) {
+        this(out, level, parallelism, executor, DefaultBlockSize);
+    }
+
+    /**
+     * @param level the level for {@link Deflater}
+     * @param parallelism the maximum number of blocks compressed at a time
+     * @param blockSize must be the dictionary size (32KB) or more
+     */
+    ParallelGZipOutputStream(OutputStream out, int level, int parallelism, Executor executor, int blockSize) {
+        if (out == null)
+            throw new NullPointerException("out");
+        if (executor == null)
+            throw new NullPointerException("executor");
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("parallelism is not positive");
+        if (blockSize < DictionarySize)
+            throw new IllegalArgumentException("blockSize is less than " + DictionarySize);
+
+        this.out = out;
+        this.level = level;
+        this.parallelism = parallelism;
+        this.executor = executor;
+        this.blockSize = blockSize;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (out == null)
+            throw new IOException("stream closed");
+        if (finished)
+            throw new IOException("write beyond end of stream");
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+
+        if (current == null)
+            current = new Block(ArrayPool.getShared().rent(blockSize));
+        current.input[current.length++] = (byte) b;
+        if (current.length == blockSize)
+            submit(false);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (b == null)
+            throw new NullPointerException("b");
+        if (off < 0 || len < 0 || b.length - off < len)
+            throw new IndexOutOfBoundsException("off: " + off + ", len: " + len);
+        ensureOpen();
+
+        while (len > 0) {
+            if (current == null)
+                current = new Block(ArrayPool.getShared().rent(blockSize));
+            int n = Math.min(blockSize - current.length, len);
+            System.arraycopy(b, off, current.input, current.length, n);
+            current.length += n;
+            off += n;
+            len -= n;
+            if (current.length == blockSize)
+                submit(false);
+        }
+    }
+
+    /** starts compressing the current block, writes the oldest ones while all are busy */
+    private void submit(boolean last) throws IOException {
+        Block block = current != null ? current : new Block(ArrayPool.getShared().rent(0));
+        current = null;
+        block.previous = previous;
+        block.last = last;
+        previous = block;
+
+        while (pending.size() >= parallelism) {
+            writeOldest();
+        }
+        pending.add(CompletableFuture.supplyAsync(() -> compress(block), executor));
+    }
+
+    /** runs on the executor */
+    private Block compress(Block block) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(block.input, 0, block.length);
+        block.crc = crc32.getValue();
+
+        Deflater deflater = deflaters.poll();
+        if (deflater == null)
+            deflater = new Deflater(level, true);
+        try {
+            Block previous = block.previous;
+            if (previous != null) {
+                int n = Math.min(previous.length, DictionarySize);
+                deflater.setDictionary(previous.input, previous.length - n, n);
+            }
+            deflater.setInput(block.input, 0, block.length);
+            if (block.last)
+                deflater.finish();
+            int flush = block.last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+
+            // enough for the most of the blocks, grown when not
+            byte[] output = ArrayPool.getShared().rent(block.length + (block.length >> 3) + 64);
+            int length = 0;
+            while (true) {
+                length += deflater.deflate(output, length, output.length - length, flush);
+                if (block.last ? deflater.finished() : length < output.length)
+                    break;
+                if (length == output.length) {
+                    byte[] larger = ArrayPool.getShared().rent(output.length * 2);
+                    System.arraycopy(output, 0, larger, 0, length);
+                    ArrayPool.getShared().returnArray(output);
+                    output = larger;
+                }
+            }
+            block.output = output;
+            block.outputLength = length;
+            return block;
+        } finally {
+            deflater.reset();
+            deflaters.add(deflater);
+        }
+    }
+
+    /** waits for the oldest block and writes it */
+    private void writeOldest() throws IOException {
+        Block block;
+        try {
+            block = pending.poll().get();
+        } catch (InterruptedException e) {
+            throw (IOException) new InterruptedIOException().initCause(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+
+        if (!headerWritten) {
+            out.write(header);
+            headerWritten = true;
+        }
+        out.write(block.output, 0, block.outputLength);
+        crc = combine(crc, block.crc, block.length);
+        size += block.length;
+
+        ArrayPool.getShared().returnArray(block.output);
+        block.output = null;
+        // the previous block is not needed as a dictionary any more
+        if (block.previous != null) {
+            ArrayPool.getShared().returnArray(block.previous.input);
+            block.previous = null;
+        }
+    }
+
+    /** writes all the pending blocks */
+    private void drain() throws IOException {
+        while (!pending.isEmpty()) {
+            writeOldest();
+        }
+    }
+
+    /**
+     * compresses and writes the bytes written so far, the data written until
+     * here can be decompressed by a reader.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (out == null)
+            throw new IOException("stream closed");
+
+        if (!finished) {
+            if (current != null && current.length > 0)
+                submit(false);
+            drain();
+        }
+        out.flush();
+    }
+
+    /** writes the last block and the trailer */
+    public void finish() throws IOException {
+        if (out == null)
+            throw new IOException("stream closed");
+        if (finished)
+            return;
+
+        submit(true);
+        drain();
+        finished = true;
+
+        byte[] trailer = new byte[8];
+        writeInt(trailer, 0, (int) crc);
+        writeInt(trailer, 4, (int) size);
+        out.write(trailer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null)
+            return;
+        try {
+            finish();
+        } finally {
+            // the remaining tasks of a failure are waited not to use the pooled arrays any more
+            for (CompletableFuture<Block> future : pending) {
+                try {
+                    Block block = future.join();
+                    ArrayPool.getShared().returnArray(block.output);
+                } catch (RuntimeException e) {
+                    // already failed
+                }
+            }
+            pending.clear();
+            if (previous != null)
+                ArrayPool.getShared().returnArray(previous.input);
+            previous = null;
+            if (current != null)
+                ArrayPool.getShared().returnArray(current.input);
+            current = null;
+            Deflater deflater;
+            while ((deflater = deflaters.poll()) != null) {
+                deflater.end();
+            }
+            OutputStream out = this.out;
+            this.out = null;
+            out.close();
+        }
+    }
+
+    /** little endian */
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * @return the crc32 of two sequences, from the crc32 of each and the
+     *         length of the second, the same as zlib's crc32_combine()
+     */
+    static long combine(long crc1, long crc2, long length2) {
+        if (length2 <= 0)
+            return crc1;
+
+        long[] even = new long[32];
+        long[] odd = new long[32];
+
+        // the operator for one zero bit
+        odd[0] = 0xedb88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // two zero bits, four zero bits
+        square(even, odd);
+        square(odd, even);
+
+        // applies length2 zero bytes to crc1, the first square makes one zero byte
+        do {
+            square(even, odd);
+            if ((length2 & 1) != 0)
+                crc1 = times(even, crc1);
+            length2 >>= 1;
+            if (length2 == 0)
+                break;
+            square(odd, even);
+            if ((length2 & 1) != 0)
+                crc1 = times(odd, crc1);
+            length2 >>= 1;
+        } while (length2 != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    private static long times(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0)
+                sum ^= matrix[i];
+        }
+        return sum;
+    }
+
+    private static void square(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = times(matrix, matrix[n]);
+        }
+    }
+}
+
+/* */
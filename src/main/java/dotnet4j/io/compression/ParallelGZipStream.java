@@ -0,0 +1,655 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import dotnet4j.buffers.ArrayPool;
+import dotnet4j.io.SeekOrigin;
+import dotnet4j.io.Stream;
+
+
+/**
+ * ParallelGZipStream.
+ * <p>
+ * A decompressing stream of concatenated gzip members (e.g. log archives,
+ * bgzip, pigz -i) which inflates independent members concurrently on the
+ * {@link Stream#getAsyncExecutor() async executor}, the output is read in
+ * order.
+ * <p>
+ * The compressed stream is cut into jobs of about {@code chunkSize} bytes at
+ * member boundaries. The boundaries of BGZF blocks are exact from their
+ * {@code BC} extra field, the others are guessed from the gzip header magic,
+ * and a job is verified by the trailers (crc32 and size) of its members.
+ * When a guess turns out wrong, or no boundary is found in a member larger
+ * than the jobs, the member is inflated serially on the caller thread, then
+ * the cutting resumes after it. So a single member gzip file is read as fast
+ * as {@link GZipStream}.
+ * <p>
+ * At most {@code parallelism} jobs are in flight, the memory is bounded by
+ * them and the output of a job, which is inflated serially instead when it
+ * exceeds {@link #MaxJobOutputSize}. Garbage after the last member is ignored
+ * as {@link java.util.zip.GZIPInputStream} does.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class ParallelGZipStream extends Stream {
+
+    /** 1MB of the compressed stream */
+    public static final int DefaultChunkSize = 1024 * 1024;
+
+    /** 64MB, a job whose output is larger is inflated serially */
+    public static final int MaxJobOutputSize = 64 * 1024 * 1024;
+
+    /** the length of the gzip header without the optional fields */
+    private static final int HeaderSize = 10;
+
+    private static final int TrailerSize = 8;
+
+    /** the verified output of a job, null output for a failure */
+    private static final class Result {
+        final byte[] output;
+        final int length;
+
+        Result(byte[] output, int length) {
+            this.output = output;
+            this.length = length;
+        }
+    }
+
+    /** a part of the compressed stream which begins at a member */
+    private static final class Job {
+        static final int Pending = 0;
+        static final int Running = 1;
+        static final int Cancelled = 2;
+
+        final byte[] data;
+        final int length;
+        CompletableFuture<Result> future;
+        /** claimed by the task before it starts, or cancelled by closing */
+        final AtomicInteger state = new AtomicInteger(Pending);
+
+        Job(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    /** null after closed */
+    private Stream stream;
+
+    private final boolean leaveOpen;
+
+    private final int parallelism;
+
+    private final int chunkSize;
+
+    /** the compressed bytes not given to a job yet, [inputStart, inputEnd) */
+    private byte[] input;
+
+    private int inputStart;
+
+    private int inputEnd;
+
+    private boolean inputEof;
+
+    /** in order */
+    private final ArrayDeque<Job> jobs = new ArrayDeque<>();
+
+    /** the next input needs to be inflated serially after the jobs */
+    private boolean serialPending;
+
+    /** inflating a member serially, null in the parallel mode */
+    private Inflater serial;
+
+    private final CRC32 serialCrc = new CRC32();
+
+    private long serialSize;
+
+    /** the output of the current job, [outputPos, outputLength) */
+    private byte[] output;
+
+    private int outputPos;
+
+    private int outputLength;
+
+    /** a member has been read */
+    private boolean started;
+
+    private long position;
+
+    /** idle inflaters to be reused by the jobs */
+    private final ConcurrentLinkedQueue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+
+    public ParallelGZipStream(Stream stream, CompressionMode mode, int parallelism) {
+        this(stream, mode, false, parallelism);
+    }
+
+    /**
+     * @param leaveOpen true to leave the stream open after closing this
+     * @param parallelism the maximum number of jobs in flight
+     */
+    public ParallelGZipStream(Stream stream, CompressionMode mode, boolean leaveOpen, int parallelism) {
+        this(stream, mode, leaveOpen, parallelism, DefaultChunkSize);
+    }
+
+    /**
+     * @param leaveOpen true to leave the stream open after closing this
+     * @param parallelism the maximum number of jobs in flight
+     * @param chunkSize the size of the compressed stream of a job
+     */
+    public ParallelGZipStream(Stream stream, CompressionMode mode, boolean leaveOpen, int parallelism, int chunkSize) {
+        if (stream == null)
+            throw new NullPointerException("stream");
+        if (mode != CompressionMode.Decompress)
+            throw new IllegalArgumentException("Compression is not supported");
+        if (!stream.canRead())
+            throw new IllegalArgumentException("stream is not readable");
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("parallelism is not positive");
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("chunkSize is not positive");
+
+        this.stream = stream;
+        this.leaveOpen = leaveOpen;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.input = new byte[chunkSize * 4];
+    }
+
+    private void ensureNotClosed() {
+        if (stream == null)
+            throw new dotnet4j.io.IOException("stream is closed");
+    }
+
+    @Override
+    public boolean canRead() {
+        return stream != null;
+    }
+
+    @Override
+    public boolean canSeek() {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return false;
+    }
+
+    @Override
+    public long getLength() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getPosition() {
+        ensureNotClosed();
+        return position;
+    }
+
+    @Override
+    public void setPosition(long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long seek(long offset, SeekOrigin origin) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setLength(long value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int count) {
+        throw new UnsupportedOperationException("stream is read only");
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0 || count < 0 || buffer.length - offset < count)
+            throw new IndexOutOfBoundsException("offset: " + offset + ", count: " + count);
+        ensureNotClosed();
+        if (count == 0)
+            return 0;
+
+        while (true) {
+            if (outputPos < outputLength) {
+                int n = Math.min(outputLength - outputPos, count);
+                System.arraycopy(output, outputPos, buffer, offset, n);
+                outputPos += n;
+                position += n;
+                return n;
+            }
+            releaseOutput();
+
+            if (serial != null) {
+                int n = readSerial(buffer, offset, count);
+                if (n > 0) {
+                    position += n;
+                    return n;
+                }
+                continue;
+            }
+
+            schedule();
+            if (jobs.isEmpty()) {
+                if (!serialPending)
+                    return 0;
+                serialPending = false;
+                if (!startSerial())
+                    return 0;
+                continue;
+            }
+
+            Job job = jobs.poll();
+            Result result;
+            try {
+                result = job.future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                                                               : new dotnet4j.io.IOException(e.getCause());
+            }
+            if (result.output == null) {
+                // a wrong boundary or a large output, inflates it serially from the job
+                rewind(job);
+                if (!startSerial())
+                    return 0;
+                continue;
+            }
+            ArrayPool.getShared().returnArray(job.data);
+            output = result.output;
+            outputPos = 0;
+            outputLength = result.length;
+        }
+    }
+
+    private void releaseOutput() {
+        if (output != null) {
+            ArrayPool.getShared().returnArray(output);
+            output = null;
+            outputPos = 0;
+            outputLength = 0;
+        }
+    }
+
+    // input
+
+    /** reads the compressed stream until the input has {@code size} bytes or the end */
+    private void fill(int size) {
+        if (inputEnd - inputStart >= size || inputEof)
+            return;
+        if (input.length - inputStart < size) {
+            byte[] newInput = input.length < size ? new byte[size] : input;
+            System.arraycopy(input, inputStart, newInput, 0, inputEnd - inputStart);
+            inputEnd -= inputStart;
+            inputStart = 0;
+            input = newInput;
+        }
+        while (inputEnd - inputStart < size) {
+            int r = stream.read(input, inputEnd, input.length - inputEnd);
+            if (r <= 0) {
+                inputEof = true;
+                break;
+            }
+            inputEnd += r;
+        }
+    }
+
+    /** puts the input of the job and of all the following jobs back */
+    private void rewind(Job failed) {
+        int size = failed.length + inputEnd - inputStart;
+        for (Job job : jobs) {
+            size += job.length;
+        }
+        byte[] newInput = new byte[Math.max(size, input.length)];
+        int n = 0;
+        System.arraycopy(failed.data, 0, newInput, n, failed.length);
+        n += failed.length;
+        ArrayPool.getShared().returnArray(failed.data);
+        for (Job job : jobs) {
+            // the data may still be used by the job, not to be returned to the pool
+            job.future.cancel(false);
+            System.arraycopy(job.data, 0, newInput, n, job.length);
+            n += job.length;
+        }
+        jobs.clear();
+        System.arraycopy(input, inputStart, newInput, n, inputEnd - inputStart);
+        n += inputEnd - inputStart;
+        input = newInput;
+        inputStart = 0;
+        inputEnd = n;
+        serialPending = false;
+    }
+
+    // parallel
+
+    /** cuts the input into jobs until the jobs are full */
+    private void schedule() {
+        while (jobs.size() < parallelism && !serialPending) {
+            int limit = chunkSize * 4;
+            fill(limit);
+            if (inputStart == inputEnd)
+                return;
+
+            int length = cut(limit);
+            if (length < 0) {
+                if (!started)
+                    throw new dotnet4j.io.IOException("invalid data: not in gzip format");
+                // garbage after the last member
+                inputStart = inputEnd;
+                return;
+            }
+            if (length == 0) {
+                serialPending = true;
+                return;
+            }
+
+            byte[] data = ArrayPool.getShared().rent(length);
+            System.arraycopy(input, inputStart, data, 0, length);
+            inputStart += length;
+            started = true;
+            Job job = new Job(data, length);
+            job.future = CompletableFuture.supplyAsync(() -> inflate(job), getAsyncExecutor());
+            jobs.add(job);
+        }
+    }
+
+    /**
+     * @return the length of the input for the next job, 0 when no boundary is
+     *         found, -1 when the input does not begin with a gzip header
+     */
+    private int cut(int limit) {
+        int available = inputEnd - inputStart;
+        int header = headerLength(input, inputStart, inputEnd);
+        if (header == -2 || (header == -1 && inputEof))
+            return -1;
+
+        // BGZF, the exact sizes
+        int blockSize = bgzfBlockSize(input, inputStart, inputEnd);
+        if (blockSize > 0) {
+            int length = 0;
+            while (true) {
+                if (length + blockSize > available)
+                    return length > 0 ? length : (inputEof ? available : 0);
+                length += blockSize;
+                if (length >= chunkSize || length == available)
+                    return length;
+                blockSize = bgzfBlockSize(input, inputStart + length, inputEnd);
+                if (blockSize <= 0)
+                    return length;
+            }
+        }
+
+        if (inputEof && available <= chunkSize)
+            return available;
+        // the last guess before the chunk size, otherwise the first after it
+        int guess = 0;
+        int end = Math.min(available, limit) - HeaderSize;
+        for (int i = HeaderSize + TrailerSize; i <= end; i++) {
+            if (isHeaderCandidate(input, inputStart + i)) {
+                if (i > chunkSize && guess > 0)
+                    break;
+                guess = i;
+                if (i > chunkSize)
+                    break;
+            }
+        }
+        if (guess > 0)
+            return guess;
+        return inputEof && available <= limit ? available : 0;
+    }
+
+    /** runs on the executor, inflates the members of the job and verifies them */
+    private Result inflate(Job job) {
+        if (!job.state.compareAndSet(Job.Pending, Job.Running))
+            return new Result(null, 0);
+        Inflater inflater = inflaters.poll();
+        if (inflater == null)
+            inflater = new Inflater(true);
+        byte[] output = ArrayPool.getShared().rent(Math.min(job.length * 4, MaxJobOutputSize));
+        int length = 0;
+        CRC32 crc = new CRC32();
+        try {
+            int position = 0;
+            while (position < job.length) {
+                int header = headerLength(job.data, position, job.length);
+                if (header < 0)
+                    return failure(output);
+                inflater.reset();
+                inflater.setInput(job.data, position + header, job.length - position - header);
+                crc.reset();
+                int start = length;
+                while (!inflater.finished()) {
+                    if (length == output.length) {
+                        if (output.length >= MaxJobOutputSize)
+                            return failure(output);
+                        byte[] larger = ArrayPool.getShared().rent(Math.min(output.length * 2, MaxJobOutputSize));
+                        System.arraycopy(output, 0, larger, 0, length);
+                        ArrayPool.getShared().returnArray(output);
+                        output = larger;
+                    }
+                    int n = inflater.inflate(output, length, output.length - length);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                        return failure(output);
+                    length += n;
+                }
+                crc.update(output, start, length - start);
+
+                int trailer = job.length - inflater.getRemaining();
+                if (trailer + TrailerSize > job.length ||
+                    readInt(job.data, trailer) != (int) crc.getValue() ||
+                    readInt(job.data, trailer + 4) != length - start)
+                    return failure(output);
+                position = trailer + TrailerSize;
+            }
+            return new Result(output, length);
+        } catch (DataFormatException e) {
+            return failure(output);
+        } finally {
+            inflaters.add(inflater);
+        }
+    }
+
+    private static Result failure(byte[] output) {
+        ArrayPool.getShared().returnArray(output);
+        return new Result(null, 0);
+    }
+
+    // serial
+
+    /** @return false at the end, the header is consumed */
+    private boolean startSerial() {
+        int header;
+        while (true) {
+            header = headerLength(input, inputStart, inputEnd);
+            if (header != -1 || inputEof)
+                break;
+            fill(inputEnd - inputStart + HeaderSize);
+        }
+        if (header < 0) {
+            if (!started && inputStart < inputEnd)
+                throw new dotnet4j.io.IOException("invalid data: not in gzip format");
+            inputStart = inputEnd;
+            return false;
+        }
+        started = true;
+        inputStart += header;
+        serial = inflaters.poll();
+        if (serial == null)
+            serial = new Inflater(true);
+        serial.reset();
+        serial.setInput(input, inputStart, inputEnd - inputStart);
+        serialCrc.reset();
+        serialSize = 0;
+        return true;
+    }
+
+    /** @return zero at the end of the member, the parallel mode resumes */
+    private int readSerial(byte[] buffer, int offset, int count) {
+        try {
+            while (true) {
+                int n = serial.inflate(buffer, offset, count);
+                if (n > 0) {
+                    serialCrc.update(buffer, offset, n);
+                    serialSize += n;
+                    return n;
+                }
+                if (serial.finished())
+                    break;
+                if (serial.needsDictionary())
+                    throw new dotnet4j.io.IOException("invalid data: a dictionary is needed");
+                if (serial.needsInput()) {
+                    inputStart = inputEnd;
+                    fill(chunkSize);
+                    if (inputStart == inputEnd)
+                        throw new dotnet4j.io.IOException("invalid data: unexpected end of stream");
+                    serial.setInput(input, inputStart, inputEnd - inputStart);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new dotnet4j.io.IOException("invalid data", e);
+        }
+
+        inputStart = inputEnd - serial.getRemaining();
+        inflaters.add(serial);
+        serial = null;
+        fill(TrailerSize);
+        if (inputEnd - inputStart < TrailerSize ||
+            readInt(input, inputStart) != (int) serialCrc.getValue() ||
+            readInt(input, inputStart + 4) != (int) serialSize)
+            throw new dotnet4j.io.IOException("invalid data: crc or size mismatch");
+        inputStart += TrailerSize;
+        return 0;
+    }
+
+    // format
+
+    /** little endian */
+    private static int readInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xff) | (buffer[offset + 1] & 0xff) << 8 |
+               (buffer[offset + 2] & 0xff) << 16 | (buffer[offset + 3] & 0xff) << 24;
+    }
+
+    /** @return a possible beginning of a member, by the fixed fields of the header */
+    private static boolean isHeaderCandidate(byte[] buffer, int offset) {
+        if (buffer[offset] != 0x1f || buffer[offset + 1] != (byte) 0x8b || buffer[offset + 2] != 8)
+            return false;
+        if ((buffer[offset + 3] & 0xe0) != 0)
+            return false;
+        int xfl = buffer[offset + 8] & 0xff;
+        int os = buffer[offset + 9] & 0xff;
+        return (xfl == 0 || xfl == 2 || xfl == 4) && (os <= 13 || os == 255);
+    }
+
+    /**
+     * @return the length of the header at the offset, -1 when more bytes are
+     *         needed, -2 when it is not a gzip header
+     */
+    static int headerLength(byte[] buffer, int offset, int end) {
+        if (end - offset < HeaderSize)
+            return end - offset >= 3 && !isMagic(buffer, offset) ? -2 : -1;
+        if (!isMagic(buffer, offset) || (buffer[offset + 3] & 0xe0) != 0)
+            return -2;
+        int flags = buffer[offset + 3];
+        int p = offset + HeaderSize;
+        if ((flags & 0x04) != 0) { // FEXTRA
+            if (end - p < 2)
+                return -1;
+            p += 2 + ((buffer[p] & 0xff) | (buffer[p + 1] & 0xff) << 8);
+        }
+        for (int flag = 0x08; flag <= 0x10; flag <<= 1) { // FNAME, FCOMMENT
+            if ((flags & flag) != 0) {
+                while (true) {
+                    if (p >= end)
+                        return -1;
+                    if (buffer[p++] == 0)
+                        break;
+                }
+            }
+        }
+        if ((flags & 0x02) != 0) // FHCRC
+            p += 2;
+        return p > end ? -1 : p - offset;
+    }
+
+    private static boolean isMagic(byte[] buffer, int offset) {
+        return buffer[offset] == 0x1f && buffer[offset + 1] == (byte) 0x8b && buffer[offset + 2] == 8;
+    }
+
+    /** @return the size of the BGZF block at the offset, -1 when it is not or not known yet */
+    static int bgzfBlockSize(byte[] buffer, int offset, int end) {
+        if (end - offset < HeaderSize + 2 || !isMagic(buffer, offset) || (buffer[offset + 3] & 0x04) == 0)
+            return -1;
+        int p = offset + HeaderSize;
+        int extraEnd = p + 2 + ((buffer[p] & 0xff) | (buffer[p + 1] & 0xff) << 8);
+        if (extraEnd > end)
+            return -1;
+        p += 2;
+        while (p + 4 <= extraEnd) {
+            int length = (buffer[p + 2] & 0xff) | (buffer[p + 3] & 0xff) << 8;
+            if (buffer[p] == 'B' && buffer[p + 1] == 'C' && length == 2 && p + 6 <= extraEnd)
+                return ((buffer[p + 4] & 0xff) | (buffer[p + 5] & 0xff) << 8) + 1;
+            p += 4 + length;
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        if (stream == null)
+            return;
+        // the jobs not started yet return at once, the running ones are
+        // waited for, they put their inflaters back before the end of them
+        for (Job job : jobs) {
+            job.state.compareAndSet(Job.Pending, Job.Cancelled);
+        }
+        for (Job job : jobs) {
+            try {
+                Result result = job.future.join();
+                if (result.output != null)
+                    ArrayPool.getShared().returnArray(result.output);
+            } catch (CompletionException e) {
+                // nothing to release
+            }
+            ArrayPool.getShared().returnArray(job.data);
+        }
+        jobs.clear();
+        releaseOutput();
+        if (serial != null) {
+            serial.end();
+            serial = null;
+        }
+        Inflater inflater;
+        while ((inflater = inflaters.poll()) != null) {
+            inflater.end();
+        }
+        Stream stream = this.stream;
+        this.stream = null;
+        if (!leaveOpen)
+            stream.close();
+    }
+}
+
+/* */
@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import dotnet4j.buffers.ArrayPool;
+import dotnet4j.io.SeekOrigin;
+import dotnet4j.io.Stream;
+
+
+/**
+ * SeekableDeflateStream.
+ * <p>
+ * A decompressing stream of deflate, zlib or gzip data which can seek, in the
+ * way of zran. While decompressing, checkpoints are taken at the deflate block
+ * boundaries every {@code checkpointInterval} bytes of the output, each holds
+ * the input position in bits, the output position and the last 32KB of the
+ * output. A seek resumes from the nearest checkpoint before the target
+ * instead of decompressing from the beginning, so the compressed stream must
+ * be seekable.
+ * <p>
+ * Only a single gzip member is read, and the trailers (adler32, crc32) are not
+ * verified. Seeking beyond the end stops at the end.
+ * {@link #getLength()} decompresses to the end once, which also takes the
+ * checkpoints of the rest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class SeekableDeflateStream extends Stream {
+
+    /** the format of the compressed stream */
+    public enum Format {
+        /** raw deflate, as C# DeflateStream */
+        Deflate,
+        /** with the zlib header, as {@link DeflateStream} by default */
+        ZLib,
+        /** a gzip member */
+        GZip
+    }
+
+    /** 16MB of the output, costs 32KB of memory per checkpoint */
+    public static final long DefaultCheckpointInterval = 16 * 1024 * 1024;
+
+    /** a state where decompression can resume */
+    private static final class Checkpoint {
+        final long outputPosition;
+        final long bitPosition;
+        final byte[] window;
+
+        Checkpoint(long outputPosition, long bitPosition, byte[] window) {
+            this.outputPosition = outputPosition;
+            this.bitPosition = bitPosition;
+            this.window = window;
+        }
+    }
+
+    /** null after closed */
+    private Stream stream;
+
+    private final boolean leaveOpen;
+
+    private final long checkpointInterval;
+
+    /** the position of the deflate data in the compressed stream */
+    private final long origin;
+
+    private final DeflateDecoder decoder;
+
+    /** in the order of the output position */
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+
+    private long position;
+
+    /** -1 until the end is reached */
+    private long length = -1;
+
+    /**
+     * creates a new seekable stream for decompression of the zlib format
+     *
+     * @param stream the compressed stream
+     * @param mode currently only decompression is supported
+     */
+    public SeekableDeflateStream(Stream stream, CompressionMode mode) {
+        this(stream, mode, false);
+    }
+
+    /**
+     * creates a new seekable stream for decompression of the zlib format
+     *
+     * @param stream the compressed stream
+     * @param mode currently only decompression is supported
+     * @param leaveOpen true to leave the stream open after closing this
+     */
+    public SeekableDeflateStream(Stream stream, CompressionMode mode, boolean leaveOpen) {
+        this(stream, mode, leaveOpen, Format.ZLib);
+    }
+
+    /**
+     * creates a new seekable stream for decompression
+     *
+     * @param stream the compressed stream
+     * @param mode currently only decompression is supported
+     * @param leaveOpen true to leave the stream open after closing this
+     * @param format the format of the compressed stream
+     */
+    public SeekableDeflateStream(Stream stream, CompressionMode mode, boolean leaveOpen, Format format) {
+        this(stream, mode, leaveOpen, format, DefaultCheckpointInterval);
+    }
+
+    /**
+     * creates a new seekable stream for decompression
+     *
+     * @param stream the compressed stream
+     * @param mode currently only decompression is supported
+     * @param leaveOpen true to leave the stream open after closing this
+     * @param format the format of the compressed stream
+     * @param checkpointInterval the minimum distance of the checkpoints in the
+     *            output
+     */
+    public SeekableDeflateStream(Stream stream, CompressionMode mode, boolean leaveOpen, Format format, long checkpointInterval) {
+        if (stream == null)
+            throw new NullPointerException("stream");
+        if (format == null)
+            throw new NullPointerException("format");
+        if (mode != CompressionMode.Decompress)
+            throw new IllegalArgumentException("Compression is not supported");
+        if (!stream.canRead() || !stream.canSeek())
+            throw new IllegalArgumentException("stream is not readable or not seekable");
+        if (checkpointInterval <= 0)
+            throw new IllegalArgumentException("checkpointInterval is not positive");
+
+        this.stream = stream;
+        this.leaveOpen = leaveOpen;
+        this.checkpointInterval = checkpointInterval;
+        switch (format) {
+        case ZLib:
+            readZLibHeader();
+            break;
+        case GZip:
+            readGZipHeader();
+            break;
+        default:
+            break;
+        }
+        this.origin = stream.getPosition();
+        this.decoder = new DeflateDecoder(stream);
+        checkpoints.add(new Checkpoint(0, 0, new byte[0]));
+    }
+
+    private int readHeaderByte() {
+        int b = stream.readByte();
+        if (b < 0)
+            throw new dotnet4j.io.IOException("invalid data: unexpected end of header");
+        return b;
+    }
+
+    private void readZLibHeader() {
+        int cmf = readHeaderByte();
+        int flg = readHeaderByte();
+        if ((cmf & 0x0f) != 8 || ((cmf << 8) | flg) % 31 != 0)
+            throw new dotnet4j.io.IOException("invalid data: not a zlib header");
+        if ((flg & 0x20) != 0)
+            throw new dotnet4j.io.IOException("a preset dictionary is not supported");
+    }
+
+    private void readGZipHeader() {
+        if (readHeaderByte() != 0x1f || readHeaderByte() != 0x8b || readHeaderByte() != 8)
+            throw new dotnet4j.io.IOException("invalid data: not a gzip header");
+        int flags = readHeaderByte();
+        // mtime, xfl, os
+        for (int i = 0; i < 6; i++)
+            readHeaderByte();
+        if ((flags & 0x04) != 0) { // FEXTRA
+            int length = readHeaderByte() | readHeaderByte() << 8;
+            for (int i = 0; i < length; i++)
+                readHeaderByte();
+        }
+        if ((flags & 0x08) != 0) { // FNAME
+            while (readHeaderByte() != 0) {
+                // skip
+            }
+        }
+        if ((flags & 0x10) != 0) { // FCOMMENT
+            while (readHeaderByte() != 0) {
+                // skip
+            }
+        }
+        if ((flags & 0x02) != 0) { // FHCRC
+            readHeaderByte();
+            readHeaderByte();
+        }
+    }
+
+    private void ensureNotClosed() {
+        if (stream == null)
+            throw new dotnet4j.io.IOException("stream is closed");
+    }
+
+    /** for tests */
+    int getCheckpointCount() {
+        return checkpoints.size();
+    }
+
+    @Override
+    public boolean canRead() {
+        return stream != null;
+    }
+
+    @Override
+    public boolean canSeek() {
+        return stream != null;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return false;
+    }
+
+    @Override
+    public long getLength() {
+        ensureNotClosed();
+
+        if (length < 0) {
+            long saved = position;
+            seek(Long.MAX_VALUE, SeekOrigin.Begin);
+            seek(saved, SeekOrigin.Begin);
+        }
+        return length;
+    }
+
+    @Override
+    public long getPosition() {
+        ensureNotClosed();
+        return position;
+    }
+
+    @Override
+    public void setPosition(long value) {
+        seek(value, SeekOrigin.Begin);
+    }
+
+    @Override
+    public long seek(long offset, SeekOrigin origin) {
+        ensureNotClosed();
+
+        long target;
+        switch (origin) {
+        case Begin:
+            target = offset;
+            break;
+        case Current:
+            target = position + offset;
+            break;
+        case End:
+            target = getLength() + offset;
+            break;
+        default:
+            throw new IllegalArgumentException("origin: " + origin);
+        }
+        if (target < 0)
+            throw new dotnet4j.io.IOException("invalid value");
+        if (target == position)
+            return position;
+
+        Checkpoint checkpoint = findCheckpoint(target);
+        if (target < position || checkpoint.outputPosition > position) {
+            stream.seek(this.origin + checkpoint.bitPosition / 8, SeekOrigin.Begin);
+            decoder.restore(checkpoint.bitPosition, checkpoint.window, checkpoint.outputPosition);
+            position = checkpoint.outputPosition;
+        }
+        if (target > position) {
+            byte[] buffer = ArrayPool.getShared().rent(DeflateDecoder.WindowSize);
+            try {
+                while (position < target) {
+                    int n = decode(buffer, 0, (int) Math.min(buffer.length, target - position));
+                    if (n == 0)
+                        break;
+                }
+            } finally {
+                ArrayPool.getShared().returnArray(buffer);
+            }
+        }
+        return position;
+    }
+
+    /** @return the last checkpoint at or before the output position */
+    private Checkpoint findCheckpoint(long outputPosition) {
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (checkpoints.get(middle).outputPosition <= outputPosition)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return checkpoints.get(low);
+    }
+
+    /** @return zero at the end */
+    private int decode(byte[] buffer, int offset, int count) {
+        int total = 0;
+        while (total < count && !decoder.isFinished()) {
+            int n = decoder.inflate(buffer, offset + total, count - total);
+            total += n;
+            position += n;
+            if (decoder.isAtBlockBoundary()) {
+                Checkpoint last = checkpoints.get(checkpoints.size() - 1);
+                if (position - last.outputPosition >= checkpointInterval)
+                    checkpoints.add(new Checkpoint(position, decoder.getBitPosition(), decoder.getWindow()));
+            }
+        }
+        if (decoder.isFinished())
+            length = position;
+        return total;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) {
+        if (buffer == null)
+            throw new NullPointerException("buffer");
+        if (offset < 0 || count < 0 || buffer.length - offset < count)
+            throw new IndexOutOfBoundsException("offset: " + offset + ", count: " + count);
+        ensureNotClosed();
+
+        return decode(buffer, offset, count);
+    }
+
+    @Override
+    public void setLength(long value) {
+        throw new UnsupportedOperationException("stream is read only");
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int count) {
+        throw new UnsupportedOperationException("stream is read only");
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        if (stream == null)
+            return;
+        decoder.release();
+        Stream stream = this.stream;
+        this.stream = null;
+        if (!leaveOpen)
+            stream.close();
+    }
+}
+
+/* */
@@ -24,6 +24,7 @@ package dotnet4j.io.lzo;
 
 import java.util.Optional;
 
+import dotnet4j.buffers.ArrayPool;
 import dotnet4j.io.BufferedStream;
 import dotnet4j.io.EndOfStreamException;
 import dotnet4j.io.IOException;
@@ -42,8 +43,15 @@ public class LzoStream extends Stream {
 
     private final boolean _leaveOpen;
 
+    /** decoded bytes which did not fit the caller's buffer, rented from the pool */
     protected byte[] _decodedBuffer;
 
+    /** start of the unread bytes in {@link #_decodedBuffer} */
+    protected int _decodedOffset;
+
+    /** number of the unread bytes in {@link #_decodedBuffer} */
+    protected int _decodedLength;
+
     protected static final int MaxWindowSize = (1 << 14) + ((255 & 8) << 11) + (255 << 6) + (255 >> 2);
 
     protected RingBuffer _ringBuffer = new RingBuffer(MaxWindowSize);
@@ -159,7 +167,7 @@ public class LzoStream extends Stream {
                     read = length;
                 } else {
                     copy(buffer, offset, count);
-                    _decodedBuffer = new byte[length - count];
+                    allocateDecodedBuffer(length - count);
                     copy(_decodedBuffer, 0, length - count);
                     read = count;
                 }
@@ -365,13 +373,13 @@ public class LzoStream extends Stream {
 
         if (count <= copy) {
             copyFromRingBuffer(buffer, offset, count, distance, count, 0);
-            _decodedBuffer = new byte[result - count];
-            copyFromRingBuffer(_decodedBuffer, 0, _decodedBuffer.length, distance, copy - count, state);
+            allocateDecodedBuffer(result - count);
+            copyFromRingBuffer(_decodedBuffer, 0, result - count, distance, copy - count, state);
             return count;
         }
         copyFromRingBuffer(buffer, offset, count, distance, copy, 0);
         int remaining = count - copy;
-        _decodedBuffer = new byte[state - remaining];
+        allocateDecodedBuffer(state - remaining);
         copy(buffer, offset + copy, remaining);
         copy(_decodedBuffer, 0, state - remaining);
         return count;
@@ -388,25 +396,35 @@ public class LzoStream extends Stream {
             _length = Optional.of(_outputPosition);
             return -1;
         }
-        int decodedLength = _decodedBuffer.length;
-        if (count > decodedLength) {
-            System.arraycopy(_decodedBuffer, 0, buffer, offset, decodedLength);
-            _decodedBuffer = null;
+        int decodedLength = _decodedLength;
+        if (count >= decodedLength) {
+            System.arraycopy(_decodedBuffer, _decodedOffset, buffer, offset, decodedLength);
+            releaseDecodedBuffer();
             _outputPosition += decodedLength;
             return decodedLength;
         }
-        System.arraycopy(_decodedBuffer, 0, buffer, offset, count);
-        if (decodedLength > count) {
-            byte[] remaining = new byte[decodedLength - count];
-            System.arraycopy(_decodedBuffer, count, remaining, 0, remaining.length);
-            _decodedBuffer = remaining;
-        } else {
-            _decodedBuffer = null;
-        }
+        System.arraycopy(_decodedBuffer, _decodedOffset, buffer, offset, count);
+        _decodedOffset += count;
+        _decodedLength -= count;
         _outputPosition += count;
         return count;
     }
 
+    private void allocateDecodedBuffer(int length) {
+        _decodedBuffer = ArrayPool.getShared().rent(length);
+        _decodedOffset = 0;
+        _decodedLength = length;
+    }
+
+    /** returns {@link #_decodedBuffer} to the pool */
+    protected void releaseDecodedBuffer() {
+        if (_decodedBuffer != null) {
+            ArrayPool.getShared().returnArray(_decodedBuffer);
+            _decodedBuffer = null;
+            _decodedLength = 0;
+        }
+    }
+
     public boolean canRead() {
         return true;
     }
@@ -466,6 +484,7 @@ public class LzoStream extends Stream {
     }
 
     public void close() throws java.io.IOException {
+        releaseDecodedBuffer();
         if (!_leaveOpen)
             _source.close();
     }
@@ -9,6 +9,7 @@ package dotnet4j.io.lzo;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
+import dotnet4j.buffers.ArrayPool;
 import dotnet4j.io.SeekOrigin;
 import dotnet4j.io.Stream;
 import dotnet4j.io.compression.CompressionMode;
@@ -127,18 +128,22 @@ public class SeekableLzoStream extends LzoStream {
             _ringBuffer = snapshot.getRingBuffer();
             _instruction = snapshot.Instruction;
             _state = snapshot.State;
-            _decodedBuffer = null;
+            releaseDecodedBuffer();
             _source.seek(snapshot.InputPosition, SeekOrigin.Begin);
         }
         if (targetPosition > position) {
             long total = targetPosition - position;
-            byte[] buffer = new byte[1024];
-            int count = 1024;
-            do {
-                if (total < count)
-                    count = (int) total;
-                total -= read(buffer, 0, count);
-            } while (total > 0);
+            byte[] buffer = ArrayPool.getShared().rent(1024);
+            try {
+                int count = 1024;
+                do {
+                    if (total < count)
+                        count = (int) total;
+                    total -= read(buffer, 0, count);
+                } while (total > 0);
+            } finally {
+                ArrayPool.getShared().returnArray(buffer);
+            }
         }
         return getPosition();
     }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.memoryMappedFiles;
+
+import java.io.Closeable;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import dotnet4j.io.FileMode;
+
+
+/**
+ * MemoryMappedFile.
+ * <p>
+ * A file to be accessed through {@link MemoryMappedViewStream}s. Views map the
+ * file lazily by windows, so a view can be larger than 2GB, and reads and
+ * seeks on it are memory loads instead of system calls.
+ * <p>
+ * Closing this closes the file, views keep the windows mapped already, but
+ * mapping new windows fails.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class MemoryMappedFile implements Closeable {
+
+    private final FileChannel channel;
+
+    private final long capacity;
+
+    private final MemoryMappedFileAccess access;
+
+    private MemoryMappedFile(FileChannel channel, long capacity, MemoryMappedFileAccess access) {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.access = access;
+    }
+
+    /** opens an existing file for read and write, the capacity is the file size */
+    public static MemoryMappedFile createFromFile(String path) {
+        return createFromFile(path, FileMode.Open, null, 0, MemoryMappedFileAccess.ReadWrite);
+    }
+
+    /** opens a file for read and write, the capacity is the file size */
+    public static MemoryMappedFile createFromFile(String path, FileMode mode) {
+        return createFromFile(path, mode, null, 0, MemoryMappedFileAccess.ReadWrite);
+    }
+
+    /**
+     * @param mapName not supported, must be null
+     * @param capacity 0 means the file size, the file is extended when it is larger than the file
+     */
+    public static MemoryMappedFile createFromFile(String path, FileMode mode, String mapName, long capacity) {
+        return createFromFile(path, mode, mapName, capacity, MemoryMappedFileAccess.ReadWrite);
+    }
+
+    /**
+     * @param mapName not supported, must be null
+     * @param capacity 0 means the file size, the file is extended when it is
+     *            larger than the file and the access is writable
+     * @throws dotnet4j.io.FileNotFoundException the file does not exist for {@link FileMode#Open}
+     * @throws dotnet4j.io.IOException an I/O error occurs
+     */
+    public static MemoryMappedFile createFromFile(String path, FileMode mode, String mapName, long capacity, MemoryMappedFileAccess access) {
+        if (path == null)
+            throw new NullPointerException("path");
+        if (mapName != null)
+            throw new UnsupportedOperationException("named maps are not supported");
+        if (capacity < 0)
+            throw new IndexOutOfBoundsException("capacity is negative");
+
+        Set<OpenOption> options = new HashSet<>();
+        options.add(StandardOpenOption.READ);
+        if (access.mapMode != MapMode.READ_ONLY)
+            options.add(StandardOpenOption.WRITE);
+        switch (mode) {
+        case CreateNew:
+            options.add(StandardOpenOption.CREATE_NEW);
+            break;
+        case Create:
+            options.add(StandardOpenOption.CREATE);
+            options.add(StandardOpenOption.TRUNCATE_EXISTING);
+            break;
+        case OpenOrCreate:
+            options.add(StandardOpenOption.CREATE);
+            break;
+        case Truncate:
+            options.add(StandardOpenOption.TRUNCATE_EXISTING);
+            break;
+        case Open:
+            break;
+        default:
+            throw new IllegalArgumentException("mode: " + mode);
+        }
+        if (options.contains(StandardOpenOption.TRUNCATE_EXISTING) || options.contains(StandardOpenOption.CREATE_NEW))
+            options.add(StandardOpenOption.WRITE);
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(Paths.get(path), options);
+            long size = channel.size();
+            if (capacity == 0) {
+                if (size == 0)
+                    throw new IllegalArgumentException("capacity must be specified for an empty file");
+                capacity = size;
+            } else if (capacity < size) {
+                throw new IllegalArgumentException("capacity is less than the file size");
+            } else if (capacity > size && !access.isWritable()) {
+                throw new IllegalArgumentException("capacity is larger than the file size for read only access");
+            }
+            return new MemoryMappedFile(channel, capacity, access);
+        } catch (NoSuchFileException e) {
+            throw new dotnet4j.io.FileNotFoundException(e);
+        } catch (java.io.IOException e) {
+            throw new dotnet4j.io.IOException(e);
+        } catch (RuntimeException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (java.io.IOException f) {
+                    e.addSuppressed(f);
+                }
+            }
+            throw e;
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /** a view for the whole file with the access of this */
+    public MemoryMappedViewStream createViewStream() {
+        return createViewStream(0, 0, access);
+    }
+
+    /**
+     * @param size 0 means to the end of the capacity
+     */
+    public MemoryMappedViewStream createViewStream(long offset, long size) {
+        return createViewStream(offset, size, access);
+    }
+
+    /**
+     * @param size 0 means to the end of the capacity
+     * @param access must not exceed the access of this
+     */
+    public MemoryMappedViewStream createViewStream(long offset, long size, MemoryMappedFileAccess access) {
+        if (offset < 0)
+            throw new IndexOutOfBoundsException("offset is negative");
+        if (size < 0)
+            throw new IndexOutOfBoundsException("size is negative");
+        if (access.mapMode != MapMode.READ_ONLY && this.access.mapMode == MapMode.READ_ONLY)
+            throw new IllegalArgumentException("access exceeds the file access: " + this.access);
+        if (size == 0)
+            size = capacity - offset;
+        if (offset + size > capacity || size <= 0)
+            throw new IndexOutOfBoundsException("offset + size exceeds the capacity: " + capacity);
+
+        return new MemoryMappedViewStream(channel, offset, size, access, MemoryMappedViewStream.DefaultWindowSize);
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        channel.close();
+    }
+}
+
+/* */
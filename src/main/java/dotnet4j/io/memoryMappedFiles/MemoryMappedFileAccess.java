@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.memoryMappedFiles;
+
+import java.nio.channels.FileChannel.MapMode;
+
+
+/**
+ * MemoryMappedFileAccess.
+ * <p>
+ * Execute permissions are not supported by java, they are mapped as the
+ * ones without execute.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public enum MemoryMappedFileAccess {
+    ReadWrite(MapMode.READ_WRITE),
+    Read(MapMode.READ_ONLY),
+    Write(MapMode.READ_WRITE),
+    CopyOnWrite(MapMode.PRIVATE),
+    ReadExecute(MapMode.READ_ONLY),
+    ReadWriteExecute(MapMode.READ_WRITE);
+
+    final MapMode mapMode;
+
+    MemoryMappedFileAccess(MapMode mapMode) {
+        this.mapMode = mapMode;
+    }
+
+    /** @return true if the file is modified through the view */
+    boolean isWritable() {
+        return mapMode == MapMode.READ_WRITE;
+    }
+}
+
+/* */
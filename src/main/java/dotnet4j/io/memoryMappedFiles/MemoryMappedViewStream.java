@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.memoryMappedFiles;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import dotnet4j.io.FileAccess;
+import dotnet4j.io.UnmanagedMemoryStream;
+
+
+/**
+ * MemoryMappedViewStream.
+ * <p>
+ * A view of a {@link MemoryMappedFile}. The view is mapped by windows of
+ * {@link #getWindowSize()} on the first access to each of them, so reads,
+ * single byte reads and seeks do not issue system calls once the window is
+ * mapped. The length of a view is fixed.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+public class MemoryMappedViewStream extends UnmanagedMemoryStream {
+
+    /** 64MB */
+    public static final int DefaultWindowSize = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final long offset;
+
+    private final long size;
+
+    private final int windowSize;
+
+    private final MapMode mapMode;
+
+    private final AtomicReferenceArray<MappedByteBuffer> windows;
+
+    MemoryMappedViewStream(FileChannel channel, long offset, long size, MemoryMappedFileAccess access, int windowSize) {
+        super(size, windowSize, size, access.mapMode == MapMode.READ_ONLY ? FileAccess.Read : FileAccess.ReadWrite);
+        this.channel = channel;
+        this.offset = offset;
+        this.size = size;
+        this.windowSize = windowSize;
+        this.mapMode = access.mapMode;
+        this.windows = new AtomicReferenceArray<>((int) ((size + windowSize - 1) / windowSize));
+    }
+
+    /** @return the offset of this view in the file */
+    public long getPointerOffset() {
+        return offset;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /** maps the window on the first access */
+    @Override
+    protected ByteBuffer segment(int index) {
+        MappedByteBuffer window = windows.get(index);
+        if (window == null) {
+            long position = (long) index * windowSize;
+            try {
+                window = channel.map(mapMode, offset + position, Math.min(windowSize, size - position));
+            } catch (java.io.IOException e) {
+                throw new dotnet4j.io.IOException(e);
+            }
+            if (!windows.compareAndSet(index, null, window))
+                window = windows.get(index);
+        }
+        return window;
+    }
+
+    /** @throws UnsupportedOperationException always, the length of a view is fixed */
+    @Override
+    public void setLength(long value) {
+        throw new UnsupportedOperationException("the length of a view can not be changed");
+    }
+
+    /** writes the modified content of the mapped windows to the file */
+    @Override
+    public void flush() {
+        super.flush();
+        if (mapMode != MapMode.READ_WRITE)
+            return;
+        for (int i = 0; i < windows.length(); i++) {
+            MappedByteBuffer window = windows.get(i);
+            if (window != null)
+                window.force();
+        }
+    }
+
+    @Override
+    public void close() throws java.io.IOException {
+        for (int i = 0; i < windows.length(); i++) {
+            windows.set(i, null);
+        }
+        super.close();
+    }
+}
+
+/* */
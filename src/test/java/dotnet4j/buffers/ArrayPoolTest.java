@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.buffers;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+/**
+ * ArrayPoolTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class ArrayPoolTest {
+
+    @Test
+    void testRent() {
+        ArrayPool pool = ArrayPool.create(1024, 2);
+        assertEquals(0, pool.rent(0).length);
+        assertEquals(16, pool.rent(1).length);
+        assertEquals(16, pool.rent(16).length);
+        assertEquals(32, pool.rent(17).length);
+        assertEquals(1024, pool.rent(1000).length);
+        assertEquals(1025, pool.rent(1025).length);
+    }
+
+    @Test
+    void testReturn() {
+        ArrayPool pool = ArrayPool.create(1024, 1);
+        byte[] a = pool.rent(100);
+        byte[] b = pool.rent(100);
+        assertNotSame(a, b);
+        a[0] = 1;
+        pool.returnArray(a, true);
+        pool.returnArray(b); // bucket is full, dropped
+        byte[] c = pool.rent(128);
+        assertSame(a, c);
+        assertEquals(0, c[0]);
+        assertNotSame(b, pool.rent(128));
+
+        pool.returnArray(new byte[2048]); // too large, ignored
+        assertThrows(IllegalArgumentException.class, () -> pool.returnArray(new byte[100]));
+    }
+
+    @Test
+    void testShared() {
+        ArrayPool pool = ArrayPool.getShared();
+        byte[] a = pool.rent(4096);
+        pool.returnArray(a);
+        assertSame(a, pool.rent(4000));
+    }
+
+    @Test
+    void testDirect() {
+        ArrayPool pool = ArrayPool.getShared();
+        ByteBuffer a = pool.rentDirect(5000);
+        assertTrue(a.isDirect());
+        assertEquals(8192, a.capacity());
+        a.position(100);
+        pool.returnDirect(a);
+        ByteBuffer b = pool.rentDirect(8192);
+        assertSame(a, b);
+        assertEquals(0, b.position());
+        assertThrows(IllegalArgumentException.class, () -> pool.returnDirect(ByteBuffer.allocate(16)));
+    }
+
+    @Test
+    void testVirtualThread() throws Exception {
+        Method startVirtualThread;
+        try {
+            startVirtualThread = Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException e) {
+            startVirtualThread = null;
+        }
+        assumeTrue(startVirtualThread != null, "no virtual threads");
+
+        // an array returned on a virtual thread reaches the shared bucket
+        ArrayPool pool = new BucketArrayPool(1024, 2, true);
+        byte[][] returned = new byte[1][];
+        Thread thread = (Thread) startVirtualThread.invoke(null, (Runnable) () -> {
+            returned[0] = pool.rent(512);
+            pool.returnArray(returned[0]);
+        });
+        thread.join();
+        assertSame(returned[0], pool.rent(512));
+    }
+}
+
+/* */
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+/**
+ * BufferedStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class BufferedStreamTest {
+
+    static final int N = 1000000;
+
+    /** allocated bytes by the current thread, or -1 if not supported */
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+            return -1;
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled())
+            return -1;
+        return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    void testReadByte() throws Exception {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        BufferedStream bs = new BufferedStream(new MemoryStream(bytes));
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(i, bs.readByte());
+        }
+        assertEquals(-1, bs.readByte());
+    }
+
+    @Test
+    void testWriteByte() throws Exception {
+        MemoryStream ms = new MemoryStream();
+        BufferedStream bs = new BufferedStream(ms, 16);
+        for (int i = 0; i < 256; i++) {
+            bs.writeByte((byte) i);
+        }
+        bs.flush();
+        assertEquals(256, ms.getLength());
+        assertEquals(255, ms.toArray()[255] & 0xff);
+    }
+
+    @Test
+    void testReadByteAllocation() throws Exception {
+        assumeTrue(allocatedBytes() >= 0, "allocation counter is not supported");
+
+        Stream stream = new BufferedStream(new MemoryStream(new byte[N * 2]));
+        for (int i = 0; i < N; i++) {
+            stream.readByte();
+        }
+        allocatedBytes();
+        long before = allocatedBytes();
+        for (int i = 0; i < N; i++) {
+            stream.readByte();
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes for " + N + " readByte()");
+    }
+
+    @Test
+    void testWriteByteAllocation() throws Exception {
+        assumeTrue(allocatedBytes() >= 0, "allocation counter is not supported");
+
+        Stream stream = new BufferedStream(new MemoryStream(N * 2 + 1));
+        for (int i = 0; i < N; i++) {
+            stream.writeByte((byte) i);
+        }
+        allocatedBytes();
+        long before = allocatedBytes();
+        for (int i = 0; i < N; i++) {
+            stream.writeByte((byte) i);
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes for " + N + " writeByte()");
+    }
+
+    @Test
+    void testSynchronizedAllocation() throws Exception {
+        assumeTrue(allocatedBytes() >= 0, "allocation counter is not supported");
+
+        Stream stream = Stream.synchronize(new BufferedStream(new MemoryStream(new byte[N * 2])));
+        for (int i = 0; i < N; i++) {
+            stream.readByte();
+        }
+        allocatedBytes();
+        long before = allocatedBytes();
+        for (int i = 0; i < N; i++) {
+            stream.readByte();
+        }
+        long allocated = allocatedBytes() - before;
+        assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes for " + N + " readByte()");
+    }
+
+    /** counts the calls which move the underlying position */
+    static class CountingStream extends MemoryStream {
+        int seeks;
+        int reads;
+        CountingStream(byte[] bytes) {
+            super(bytes);
+        }
+        @Override
+        public long seek(long offset, SeekOrigin origin) {
+            seeks++;
+            return super.seek(offset, origin);
+        }
+        @Override
+        public void setPosition(long value) {
+            seeks++;
+            super.setPosition(value);
+        }
+        @Override
+        public int read(byte[] buffer, int offset, int count) {
+            reads++;
+            return super.read(buffer, offset, count);
+        }
+    }
+
+    @Test
+    void testSeekInBuffer() throws Exception {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        CountingStream cs = new CountingStream(bytes);
+        BufferedStream bs = new BufferedStream(cs, 64);
+        byte[] header = new byte[8];
+        assertEquals(8, bs.read(header, 0, 8));
+        assertEquals(4, bs.seek(-4, SeekOrigin.Current));
+        assertEquals(4, bs.readByte());
+        bs.setPosition(60);
+        assertEquals(60, bs.readByte());
+        assertEquals(2, bs.seek(2, SeekOrigin.Begin));
+        assertEquals(2, bs.readByte());
+        assertEquals(0, cs.seeks);
+        assertEquals(1, cs.reads);
+
+        // out of the buffer
+        assertEquals(100, bs.seek(100, SeekOrigin.Begin));
+        assertEquals(100, bs.readByte());
+        assertEquals(101, bs.getPosition());
+        assertEquals(250, bs.seek(-6, SeekOrigin.End));
+        assertEquals(250, bs.readByte());
+    }
+
+    @Test
+    void testPeekUnread() throws Exception {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        CountingStream cs = new CountingStream(bytes);
+        BufferedStream bs = new BufferedStream(cs, 64);
+        assertEquals(0, bs.peek());
+        assertEquals(0, bs.getPosition());
+
+        // peek across the end of the buffered data
+        bs.setPosition(60);
+        byte[] peeked = new byte[10];
+        assertEquals(10, bs.peek(peeked, 0, 10));
+        assertEquals(60, peeked[0]);
+        assertEquals(69, peeked[9]);
+        assertEquals(60, bs.getPosition());
+        assertEquals(60, bs.readByte());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(61 + i, bs.readByte());
+        }
+        bs.unread(4);
+        assertEquals(61, bs.getPosition());
+        assertEquals(61, bs.readByte());
+        assertEquals(62, bs.seek(0, SeekOrigin.Current));
+
+        bs.setPosition(250);
+        assertEquals(6, bs.peek(peeked, 0, 10));
+        assertEquals(255, peeked[5] & 0xff);
+        bs.setPosition(256);
+        assertEquals(-1, bs.peek());
+    }
+
+    @Test
+    void testPeekAfterSeekOutOfBuffer() throws Exception {
+        byte[] bytes = new byte[2000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 251);
+        }
+        BufferedStream bs = new BufferedStream(new MemoryStream(bytes), 100);
+        assertEquals(0, bs.readByte());
+        assertEquals(2, bs.seek(1, SeekOrigin.Current));
+        assertEquals(1000, bs.seek(1000, SeekOrigin.Begin));
+        assertEquals(1000 % 251, bs.peek());
+        assertEquals(1000, bs.seek(0, SeekOrigin.Current));
+        assertEquals(5, bs.seek(5, SeekOrigin.Begin));
+        assertEquals(5, bs.readByte());
+        assertEquals(6, bs.getPosition());
+    }
+}
+
+/* */
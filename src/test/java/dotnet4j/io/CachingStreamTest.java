@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * CachingStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class CachingStreamTest {
+
+    @Test
+    void test1() throws Exception {
+        byte[] data = new byte[10000];
+        new Random(1).nextBytes(data);
+        MemoryStream ms = new MemoryStream();
+        ms.write(data, 0, data.length);
+
+        BlockCache cache = new BlockCache(4096);
+        CachingStream stream = new CachingStream(ms, 1024, cache);
+        byte[] buffer = new byte[data.length];
+        stream.setPosition(0);
+        assertEquals(data.length, stream.read(buffer, 0, buffer.length));
+        assertArrayEquals(data, buffer);
+        assertEquals(10, cache.getMisses());
+        assertEquals(6, cache.getEvictions());
+        assertEquals(4, cache.getBlockCount());
+        assertTrue(cache.getSize() <= cache.getCapacity());
+
+        // the last 4 blocks are cached
+        stream.seek(-1000, SeekOrigin.End);
+        assertEquals(1000, stream.read(buffer, 0, 1000));
+        assertEquals(2, cache.getHits());
+        assertEquals(0, stream.read(buffer, 0, 1));
+
+        // writes invalidate
+        stream.setPosition(9990);
+        stream.write(new byte[20], 0, 20);
+        assertEquals(10010, stream.getLength());
+        stream.setPosition(9980);
+        assertEquals(30, stream.read(buffer, 0, 100));
+        assertEquals(data[9980], buffer[0]);
+        assertEquals(0, buffer[10]);
+        assertEquals(0, buffer[29]);
+
+        stream.close();
+        assertEquals(0, cache.getBlockCount());
+    }
+}
+
+/* */
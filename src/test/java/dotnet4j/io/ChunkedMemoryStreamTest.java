@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * ChunkedMemoryStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class ChunkedMemoryStreamTest {
+
+    @Test
+    void testReadWrite() throws Exception {
+        byte[] data = new byte[10000];
+        new Random(1).nextBytes(data);
+
+        ChunkedMemoryStream stream = new ChunkedMemoryStream(1000);
+        for (int i = 0; i < data.length; i += 333) {
+            stream.write(data, i, Math.min(333, data.length - i));
+        }
+        assertEquals(data.length, stream.getLength());
+        assertArrayEquals(data, stream.toArray());
+
+        stream.seek(995, SeekOrigin.Begin);
+        byte[] buf = new byte[10];
+        assertEquals(10, stream.read(buf, 0, 10));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(data[995 + i], buf[i]);
+        }
+        assertEquals(data[1005] & 0xff, stream.readByte());
+
+        stream.seek(-1, SeekOrigin.End);
+        assertEquals(data[data.length - 1] & 0xff, stream.readByte());
+        assertEquals(-1, stream.readByte());
+        assertEquals(0, stream.read(buf, 0, 10));
+
+        MemoryStream copy = new MemoryStream();
+        stream.writeTo(copy);
+        assertArrayEquals(data, copy.toArray());
+        stream.close();
+        assertThrows(dotnet4j.io.IOException.class, stream::getLength);
+    }
+
+    @Test
+    void testSparse() throws Exception {
+        ChunkedMemoryStream stream = new ChunkedMemoryStream();
+        stream.setLength(3L * Integer.MAX_VALUE);
+        assertEquals(3L * Integer.MAX_VALUE, stream.getLength());
+
+        // over 2GB, across a chunk boundary
+        long position = 40000L * ChunkedMemoryStream.DefaultChunkSize - 2;
+        stream.setPosition(position);
+        stream.write(new byte[] { 1, 2, 3 }, 0, 3);
+        byte[] buf = new byte[5];
+        assertEquals(5, stream.readAt(position - 1, buf, 0, 5));
+        assertArrayEquals(new byte[] { 0, 1, 2, 3, 0 }, buf);
+
+        // truncate then extend, the truncated bytes must come back as zero
+        stream.setLength(position + 1);
+        stream.setLength(position + 3);
+        assertEquals(3, stream.readAt(position, buf, 0, 5));
+        assertArrayEquals(new byte[] { 1, 0, 0 }, new byte[] { buf[0], buf[1], buf[2] });
+        stream.close();
+    }
+}
+
+/* */
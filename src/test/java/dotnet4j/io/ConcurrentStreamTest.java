@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * ConcurrentStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class ConcurrentStreamTest {
+
+    @Test
+    void testThreads() throws Exception {
+        byte[] data = new byte[64 * 1024];
+        new Random(1).nextBytes(data);
+        Path file = Files.createTempFile("ConcurrentStreamTest", ".bin");
+        Files.write(file, data);
+
+        int threads = 16;
+        Stream stream = Stream.concurrent(new FileStream(file.toString(), FileMode.Open, FileAccess.ReadWrite));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    byte[] buffer = new byte[512];
+                    for (int i = 0; i < 500; i++) {
+                        int position = random.nextInt(data.length - buffer.length);
+                        stream.seek(position, SeekOrigin.Begin);
+                        assertEquals(buffer.length, stream.read(buffer, 0, buffer.length));
+                        assertEquals(position + buffer.length, stream.getPosition());
+                        for (int j = 0; j < buffer.length; j++) {
+                            assertEquals(data[position + j], buffer[j]);
+                        }
+                        assertEquals(data[position + buffer.length] & 0xff, stream.readByte());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            futures.clear();
+            // each thread writes its own region
+            for (int t = 0; t < threads; t++) {
+                int region = t;
+                futures.add(executor.submit(() -> {
+                    stream.setPosition(region * 1024L);
+                    stream.write(new byte[1024], 0, 1024);
+                    assertEquals((region + 1) * 1024L, stream.getPosition());
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals(0, stream.getPosition());
+            assertEquals(data.length, stream.getLength());
+        } finally {
+            executor.shutdown();
+            stream.close();
+        }
+        assertFalse(stream.canRead());
+        assertThrows(dotnet4j.io.IOException.class, stream::getLength);
+
+        byte[] actual = Files.readAllBytes(file);
+        assertArrayEquals(new byte[threads * 1024], Arrays.copyOf(actual, threads * 1024));
+        Files.delete(file);
+    }
+
+    @Test
+    void testWritesPastTheEnd() throws Exception {
+        int threads = 8;
+        int writes = 500;
+        int size = 100;
+        Stream stream = Stream.concurrent(UnmanagedMemoryStream.allocate((long) threads * writes * size));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    byte[] block = new byte[size];
+                    Arrays.fill(block, (byte) (thread + 1));
+                    // interleaved blocks, each one is likely beyond the length
+                    for (int i = 0; i < writes; i++) {
+                        stream.setPosition(((long) i * threads + thread) * size);
+                        stream.write(block, 0, size);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertEquals((long) threads * writes * size, stream.getLength());
+            byte[] block = new byte[size];
+            for (int i = 0; i < threads * writes; i++) {
+                stream.setPosition((long) i * size);
+                assertEquals(size, stream.read(block, 0, size));
+                for (int j = 0; j < size; j++) {
+                    assertEquals(i % threads + 1, block[j], "block " + i);
+                }
+            }
+        } finally {
+            executor.shutdown();
+            stream.close();
+        }
+    }
+}
+
+/* */
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dotnet4j.buffers.ArrayPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * FileStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class FileStreamTest {
+
+    Path file;
+
+    byte[] data;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempFile("FileStreamTest", ".bin");
+        data = new byte[10000];
+        new Random(1).nextBytes(data);
+        Files.write(file, data);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void testDirectBuffer() throws Exception {
+        try (FileStream fs = new FileStream(file.toString(), FileMode.Open, FileAccess.ReadWrite)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+            while (buffer.hasRemaining()) {
+                if (fs.read(buffer) == 0)
+                    break;
+            }
+            assertEquals(data.length, fs.getPosition());
+            buffer.flip();
+            byte[] actual = new byte[data.length];
+            buffer.get(actual);
+            assertArrayEquals(data, actual);
+
+            buffer.rewind();
+            fs.write(buffer);
+            assertEquals(data.length * 2, fs.getLength());
+        }
+    }
+
+    @Test
+    void testPositionalBuffer() throws Exception {
+        try (FileStream fs = new FileStream(file.toString(), FileMode.Open, FileAccess.ReadWrite)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+            assertEquals(100, fs.read(buffer, 5000));
+            assertEquals(0, fs.getPosition());
+            buffer.flip();
+            for (int i = 0; i < 100; i++) {
+                assertEquals(data[5000 + i], buffer.get(i));
+            }
+
+            fs.write(buffer, 0);
+            assertEquals(0, fs.getPosition());
+            assertEquals(0, fs.read(ByteBuffer.allocate(1), data.length));
+        }
+        byte[] actual = Files.readAllBytes(file);
+        assertEquals(data[5000], actual[0]);
+        assertEquals(data[5099], actual[99]);
+    }
+
+    @Test
+    void testBridge() throws Exception {
+        MemoryStream ms = new MemoryStream(data);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(20);
+        assertEquals(20, ms.read(buffer, 100));
+        assertEquals(0, ms.getPosition());
+        assertEquals(data[100], buffer.get(0));
+
+        MemoryStream out = new MemoryStream();
+        buffer.flip();
+        out.write(buffer);
+        assertEquals(20, out.getLength());
+        assertEquals(data[119], out.toArray()[19]);
+    }
+
+    @Test
+    void testAsync() throws Exception {
+        try (FileStream fs = new FileStream(file.toString(), FileMode.Open, FileAccess.ReadWrite)) {
+            byte[] buffer = new byte[data.length + 100];
+            int r = fs.readAsync(buffer, 0, buffer.length).get();
+            assertEquals(data.length, r);
+            assertEquals(data.length, fs.getPosition());
+            assertArrayEquals(data, Arrays.copyOf(buffer, r));
+
+            fs.writeAsync(data, 0, 100).get();
+            assertEquals(data.length + 100, fs.getPosition());
+            assertEquals(data.length + 100, fs.getLength());
+            fs.flushAsync().get();
+
+            fs.setPosition(0);
+            MemoryStream ms = new MemoryStream();
+            fs.copyToAsync(ms).get();
+            assertEquals(data.length + 100, ms.getLength());
+            assertArrayEquals(Arrays.copyOf(data, 100), Arrays.copyOfRange(ms.toArray(), data.length, data.length + 100));
+        }
+    }
+
+    @Test
+    void testParallelReadAt() throws Exception {
+        try (FileStream fs = new FileStream(file.toString(), FileMode.Open, FileAccess.Read)) {
+            int threads = 8;
+            int region = data.length / threads;
+            ExecutorService es = Executors.newFixedThreadPool(threads);
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long position = (long) i * region;
+                futures.add(es.submit(() -> {
+                    byte[] buffer = new byte[region];
+                    for (int j = 0; j < region; j += 100) {
+                        fs.readAt(position + j, buffer, j, Math.min(100, region - j));
+                    }
+                    return buffer;
+                }));
+            }
+            for (int i = 0; i < threads; i++) {
+                assertArrayEquals(Arrays.copyOfRange(data, i * region, (i + 1) * region), futures.get(i).get());
+            }
+            es.shutdown();
+            assertEquals(0, fs.getPosition());
+        }
+    }
+
+    @Test
+    void testCopyTo() throws Exception {
+        Path copy = Files.createTempFile("FileStreamTest", ".bin");
+        try (FileStream src = new FileStream(file.toString(), FileMode.Open, FileAccess.Read);
+             FileStream dst = new FileStream(copy.toString(), FileMode.Open, FileAccess.Write)) {
+            src.setPosition(1000);
+            dst.write(data, 0, 10);
+            src.copyTo(dst);
+            assertEquals(data.length, src.getPosition());
+            assertEquals(data.length - 1000 + 10, dst.getPosition());
+
+            MemoryStream ms = new MemoryStream(data);
+            ms.setPosition(data.length - 10);
+            ms.copyTo(dst);
+            assertEquals(data.length, ms.getPosition());
+        }
+        byte[] actual = Files.readAllBytes(copy);
+        int length = 10 + data.length - 1000 + 10;
+        assertEquals(length, actual.length);
+        assertArrayEquals(Arrays.copyOfRange(data, 1000, data.length), Arrays.copyOfRange(actual, 10, length - 10));
+        assertArrayEquals(Arrays.copyOfRange(data, data.length - 10, data.length), Arrays.copyOfRange(actual, length - 10, length));
+        Files.delete(copy);
+    }
+
+    @Test
+    void testBuffered() throws Exception {
+        MemoryStream expected = new MemoryStream();
+        expected.write(data, 0, data.length);
+        expected.setPosition(0);
+        Random random = new Random(2);
+        try (FileStream fs = new FileStream(file.toString(), FileMode.Open, FileAccess.ReadWrite, FileShare.None, 64, FileOptions.None)) {
+            assertEquals(64, fs.getBufferSize());
+            for (int i = 0; i < 10000; i++) {
+                switch (random.nextInt(6)) {
+                case 0: {
+                    int count = random.nextInt(200);
+                    byte[] a = new byte[count];
+                    byte[] b = new byte[count];
+                    assertEquals(expected.read(a, 0, count), fs.read(b, 0, count));
+                    assertArrayEquals(a, b);
+                    break;
+                }
+                case 1: {
+                    byte[] a = new byte[random.nextInt(200)];
+                    random.nextBytes(a);
+                    expected.write(a, 0, a.length);
+                    fs.write(a, 0, a.length);
+                    break;
+                }
+                case 2:
+                    assertEquals(expected.readByte(), fs.readByte());
+                    break;
+                case 3: {
+                    byte value = (byte) random.nextInt();
+                    expected.writeByte(value);
+                    fs.writeByte(value);
+                    break;
+                }
+                case 4: {
+                    long position = random.nextInt((int) expected.getLength() + 10);
+                    assertEquals(expected.seek(position, SeekOrigin.Begin), fs.seek(position, SeekOrigin.Begin));
+                    break;
+                }
+                case 5: {
+                    long offset = random.nextInt(200) - 100;
+                    if (expected.getPosition() + offset >= 0)
+                        assertEquals(expected.seek(offset, SeekOrigin.Current), fs.seek(offset, SeekOrigin.Current));
+                    break;
+                }
+                }
+                assertEquals(expected.getPosition(), fs.getPosition());
+                assertEquals(expected.getLength(), fs.getLength());
+            }
+        }
+        assertArrayEquals(expected.toArray(), Files.readAllBytes(file));
+    }
+
+    /** counts the forces, the first one blocks until released */
+    static class BlockingForceStream extends FileStream {
+        final AtomicInteger forces = new AtomicInteger();
+        final CountDownLatch forcing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingForceStream(String path) {
+            super(path, FileMode.Open, FileAccess.ReadWrite);
+        }
+
+        @Override
+        protected void force() {
+            if (forces.getAndIncrement() == 0) {
+                forcing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.force();
+        }
+    }
+
+    @Test
+    void testGroupCommit() throws Exception {
+        int threads = 8;
+        try (BlockingForceStream fs = new BlockingForceStream(file.toString())) {
+            fs.setGroupCommit(true);
+            Thread[] writers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int i = t;
+                writers[t] = new Thread(() -> {
+                    fs.writeAt(i, new byte[] { (byte) i }, 0, 1);
+                    fs.flush(true);
+                });
+            }
+            // the first writer leads and blocks in the force
+            writers[0].start();
+            fs.forcing.await();
+            for (int t = 1; t < threads; t++) {
+                writers[t].start();
+            }
+            // the others wait for the force in progress
+            for (int t = 1; t < threads; t++) {
+                while (writers[t].getState() != Thread.State.WAITING) {
+                    assertTrue(writers[t].isAlive());
+                    Thread.sleep(1);
+                }
+            }
+            fs.release.countDown();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            // the first force, then a single force for all the waiters
+            assertEquals(2, fs.forces.get());
+        }
+        byte[] actual = Files.readAllBytes(file);
+        for (int i = 0; i < threads; i++) {
+            assertEquals((byte) i, actual[i]);
+        }
+    }
+
+    @Test
+    void testOptions() throws Exception {
+        assertEquals(EnumSet.of(FileOptions.WriteThrough, FileOptions.NoBuffering), FileOptions.valueOf(0xa0000000));
+        assertEquals(0xa0000000, FileOptions.valueOf(EnumSet.of(FileOptions.WriteThrough, FileOptions.NoBuffering)));
+
+        try (FileStream fs = new FileStream(file.toString(), FileMode.Create, FileAccess.ReadWrite, FileShare.None, 0, FileOptions.WriteThrough)) {
+            assertTrue(fs.isWriteThrough());
+            assertEquals(0, fs.getLength());
+            fs.write(data, 0, 100);
+        }
+        assertEquals(100, Files.size(file));
+
+        // null is no options
+        try (FileStream fs = new FileStream(file.toString(), FileMode.Open, FileAccess.Read, FileShare.Read, 0, (FileOptions) null)) {
+            assertFalse(fs.isWriteThrough());
+            assertEquals(100, fs.getLength());
+        }
+    }
+
+    @Test
+    void testNoBuffering() throws Exception {
+        FileStream fs;
+        try {
+            fs = new FileStream(file.toString(), FileMode.Open, FileAccess.ReadWrite, FileShare.None, 4096, EnumSet.of(FileOptions.NoBuffering));
+        } catch (UnsupportedOperationException | dotnet4j.io.IOException e) {
+            // the runtime or the file system (e.g. tmpfs) does not support O_DIRECT
+            Assumptions.assumeTrue(false, e.toString());
+            return;
+        }
+        try {
+            int alignment = fs.getAlignment();
+            assertEquals(0, fs.getBufferSize());
+            assertThrows(dotnet4j.io.IOException.class, () -> fs.read(new byte[100], 0, 100));
+
+            ByteBuffer buffer = FileStream.allocateAligned(alignment, alignment);
+            assertEquals(alignment, fs.read(buffer, 0));
+            for (int i = 0; i < alignment; i++) {
+                assertEquals(data[i], buffer.get(i));
+            }
+            buffer.flip();
+            fs.write(buffer, alignment);
+            assertThrows(dotnet4j.io.IOException.class, () -> fs.write(ByteBuffer.allocateDirect(alignment), 1));
+        } finally {
+            fs.close();
+        }
+    }
+
+    @Test
+    void testSetLength() throws Exception {
+        try (FileStream fs = new FileStream(file.toString(), FileMode.Open, FileAccess.ReadWrite, FileShare.None, 4096, FileOptions.None)) {
+            fs.seek(0, SeekOrigin.End);
+            fs.setLength(5000);
+            assertEquals(5000, fs.getLength());
+            assertEquals(5000, fs.getPosition());
+
+            fs.setLength(3_000_000);
+            assertEquals(3_000_000, fs.getLength());
+            assertEquals(5000, fs.getPosition());
+            byte[] buffer = new byte[100];
+            assertEquals(100, fs.readAt(3_000_000 - 100, buffer, 0, 100));
+            assertArrayEquals(new byte[100], buffer);
+
+            // a dirty buffer in the pool is not written as zeros
+            ByteBuffer dirty = ArrayPool.getShared().rentDirect(1024 * 1024);
+            while (dirty.hasRemaining())
+                dirty.put((byte) 0xff);
+            ArrayPool.getShared().returnDirect(dirty);
+
+            fs.setExtendMode(FileStream.ExtendMode.Preallocated);
+            fs.setLength(6_000_000);
+            assertEquals(6_000_000, fs.getLength());
+            assertEquals(100, fs.readAt(4_000_000, buffer, 0, 100));
+            assertArrayEquals(new byte[100], buffer);
+
+            fs.preallocate(5_000_000);
+            assertEquals(6_000_000, fs.getLength());
+            fs.preallocate(7_000_000);
+            assertEquals(7_000_000, fs.getLength());
+            assertEquals(5000, fs.getPosition());
+        }
+        byte[] actual = Files.readAllBytes(file);
+        assertEquals(7_000_000, actual.length);
+        assertArrayEquals(Arrays.copyOf(data, 5000), Arrays.copyOf(actual, 5000));
+        assertArrayEquals(new byte[4_000_000], Arrays.copyOfRange(actual, 3_000_000, 7_000_000));
+
+        // appending starts at the end
+        try (FileStream fs = new FileStream(file.toString(), FileMode.Append)) {
+            assertEquals(7_000_000, fs.getPosition());
+            fs.write(data, 0, 10);
+            assertEquals(7_000_010, fs.getPosition());
+            assertEquals(7_000_010, fs.getLength());
+        }
+    }
+}
+
+/* */
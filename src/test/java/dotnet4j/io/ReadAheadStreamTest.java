@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * ReadAheadStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class ReadAheadStreamTest {
+
+    /** counts the reads on the other threads, fails at the given position */
+    static class TestStream extends MemoryStream {
+        final Thread owner = Thread.currentThread();
+        volatile int backgroundReads;
+        long failAt = Long.MAX_VALUE;
+        TestStream(byte[] bytes) {
+            super(bytes);
+        }
+        @Override
+        public int read(byte[] buffer, int offset, int count) {
+            if (Thread.currentThread() != owner)
+                backgroundReads++;
+            if (getPosition() + count > failAt)
+                throw new dotnet4j.io.IOException("test");
+            return super.read(buffer, offset, count);
+        }
+    }
+
+    @Test
+    void testSequential() throws Exception {
+        byte[] data = new byte[100000];
+        new Random(1).nextBytes(data);
+        TestStream ts = new TestStream(data);
+        ReadAheadStream stream = new ReadAheadStream(ts, 1000, 3);
+
+        byte[] actual = new byte[data.length];
+        int n = 0;
+        while (n < actual.length) {
+            int r = stream.read(actual, n, Math.min(777, actual.length - n));
+            if (r == 0)
+                break;
+            n += r;
+        }
+        assertEquals(data.length, n);
+        assertArrayEquals(data, actual);
+        assertEquals(0, stream.read(actual, 0, 1));
+        assertEquals(data.length, stream.getPosition());
+        assertTrue(ts.backgroundReads > 0);
+
+        // after a seek
+        assertEquals(50000, stream.seek(50000, SeekOrigin.Begin));
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(data[50000 + i] & 0xff, stream.readByte());
+        }
+        assertEquals(55000, stream.getPosition());
+        stream.setPosition(10);
+        assertEquals(data[10] & 0xff, stream.readByte());
+        stream.close();
+    }
+
+    @Test
+    void testError() throws Exception {
+        byte[] data = new byte[10000];
+        TestStream ts = new TestStream(data);
+        ts.failAt = 5000;
+        ReadAheadStream stream = new ReadAheadStream(ts, 1000, 2);
+        byte[] buffer = new byte[100];
+        assertThrows(dotnet4j.io.IOException.class, () -> {
+            while (true) {
+                stream.read(buffer, 0, buffer.length);
+            }
+        });
+        assertTrue(stream.getPosition() <= 5000);
+        stream.close();
+    }
+}
+
+/* */
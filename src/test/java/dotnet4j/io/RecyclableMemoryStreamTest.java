@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+/**
+ * RecyclableMemoryStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class RecyclableMemoryStreamTest {
+
+    @Test
+    void test1() throws Exception {
+        RecyclableMemoryStreamManager manager = new RecyclableMemoryStreamManager(1024, 4096, 4096 * 4);
+
+        byte[] data = new byte[5000];
+        new Random(1).nextBytes(data);
+
+        RecyclableMemoryStream stream = manager.getStream();
+        stream.write(data, 0, data.length);
+        assertEquals(5, manager.getSmallBlocksInUse());
+        assertArrayEquals(data, stream.toArray());
+
+        byte[] buffer = stream.getBuffer();
+        assertEquals(8192, buffer.length);
+        assertEquals(1, manager.getLargeBufferRequests());
+        assertEquals(8192, manager.getLargePoolInUseSize());
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(data[i], buffer[i]);
+        }
+
+        stream.close();
+        assertEquals(0, manager.getSmallBlocksInUse());
+        assertEquals(5 * 1024, manager.getSmallPoolFreeSize());
+        assertEquals(0, manager.getLargePoolInUseSize());
+        assertEquals(8192, manager.getLargePoolFreeSize());
+        assertEquals(5 * 1024 + 8192, manager.getPooledBytes());
+
+        // blocks are reused and come back cleared
+        RecyclableMemoryStream stream2 = manager.getStream();
+        stream2.setLength(5000);
+        stream2.writeByte((byte) 1);
+        assertEquals(4, manager.getSmallPoolFreeSize() / 1024);
+        byte[] rest = new byte[1023];
+        assertEquals(1023, stream2.readAt(1, rest, 0, rest.length));
+        assertArrayEquals(new byte[1023], rest);
+        assertSame(buffer, stream2.getBuffer());
+        stream2.close();
+    }
+}
+
+/* */
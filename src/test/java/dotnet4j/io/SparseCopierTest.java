@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * SparseCopierTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class SparseCopierTest {
+
+    @Test
+    void testIsZero() {
+        byte[] buffer = new byte[21];
+        assertTrue(SparseCopier.isZero(buffer, 0, buffer.length));
+        buffer[20] = 1;
+        assertFalse(SparseCopier.isZero(buffer, 0, buffer.length));
+        assertTrue(SparseCopier.isZero(buffer, 0, 20));
+        buffer[9] = 1;
+        assertFalse(SparseCopier.isZero(buffer, 3, 10));
+    }
+
+    @Test
+    void testCopy() throws Exception {
+        // data, zeros, data, trailing zeros
+        byte[] data = new byte[10 * 1024];
+        Arrays.fill(data, 0, 1024, (byte) 1);
+        Arrays.fill(data, 5 * 1024, 5 * 1024 + 10, (byte) 2);
+
+        Path file = Files.createTempFile("SparseCopierTest", ".bin");
+        try {
+            SparseCopier copier = new SparseCopier(1024);
+            try (FileStream destination = new FileStream(file.toString(), FileMode.Create, FileAccess.ReadWrite)) {
+                long written = copier.copy(new MemoryStream(data), destination);
+                assertEquals(2 * 1024, written);
+                assertEquals(data.length, copier.getBytesRead());
+                assertEquals(8 * 1024, copier.getBytesSkipped());
+                assertEquals(data.length, destination.getPosition());
+                assertEquals(data.length, destination.getLength());
+            }
+            assertArrayEquals(data, Files.readAllBytes(file));
+
+            // existing data in the destination must be overwritten even by zeros
+            byte[] ones = new byte[data.length];
+            Arrays.fill(ones, (byte) 1);
+            Files.write(file, ones);
+            try (FileStream destination = new FileStream(file.toString(), FileMode.Open, FileAccess.ReadWrite)) {
+                assertEquals(data.length, copier.copy(new MemoryStream(data), destination));
+            }
+            assertArrayEquals(data, Files.readAllBytes(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
+
+/* */
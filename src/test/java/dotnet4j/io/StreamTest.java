@@ -8,6 +8,7 @@ package dotnet4j.io;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
@@ -38,6 +39,21 @@ class StreamTest {
         }
     }
 
+
+    @Test
+    void testReadAtWriteAt() {
+        MemoryStream ms = new MemoryStream();
+        byte[] bytes = { 1, 2, 3, 4 };
+        ms.writeAt(10, bytes, 0, 4);
+        assertEquals(14, ms.getLength());
+        assertEquals(0, ms.getPosition());
+
+        byte[] buffer = new byte[8];
+        assertEquals(6, ms.readAt(8, buffer, 0, 8));
+        assertArrayEquals(new byte[] { 0, 0, 1, 2, 3, 4, 0, 0 }, buffer);
+        assertEquals(0, ms.readAt(14, buffer, 0, 8));
+        assertEquals(0, ms.getPosition());
+    }
 }
 
 /* */
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * UnmanagedMemoryStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class UnmanagedMemoryStreamTest {
+
+    @Test
+    void testSegments() throws Exception {
+        byte[] data = new byte[10000];
+        new Random(1).nextBytes(data);
+
+        ByteBuffer[] segments = new ByteBuffer[4];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocateDirect(i < 3 ? 3000 : 2000);
+        }
+        UnmanagedMemoryStream stream = new UnmanagedMemoryStream(segments, 0, FileAccess.ReadWrite);
+        assertEquals(11000, stream.getCapacity());
+
+        for (int i = 0; i < data.length; i += 777) {
+            stream.write(data, i, Math.min(777, data.length - i));
+        }
+        assertEquals(data.length, stream.getLength());
+
+        byte[] result = new byte[data.length];
+        stream.setPosition(0);
+        assertEquals(data.length, stream.read(result, 0, result.length));
+        assertArrayEquals(data, result);
+        assertEquals(0, stream.read(result, 0, 1));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(20);
+        assertEquals(20, stream.read(direct, 2990));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(data[2990 + i], direct.get(i));
+        }
+        assertEquals(5999, stream.seek(5999, SeekOrigin.Begin));
+        assertEquals(data[5999] & 0xff, stream.readByte());
+
+        // a gap is zero filled
+        stream.setPosition(10500);
+        stream.writeByte((byte) 1);
+        assertEquals(10501, stream.getLength());
+        byte[] gap = new byte[501];
+        assertEquals(501, stream.readAt(10000, gap, 0, gap.length));
+        assertEquals(1, gap[500]);
+        assertArrayEquals(new byte[500], Arrays.copyOf(gap, 500));
+
+        assertThrows(dotnet4j.io.IOException.class, () -> stream.write(new byte[1000], 0, 1000));
+        assertThrows(dotnet4j.io.IOException.class, () -> stream.setLength(11001));
+        stream.close();
+        assertFalse(stream.canRead());
+    }
+
+    @Test
+    void testReadOnly() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(10);
+        buffer.put(3, (byte) 3);
+        UnmanagedMemoryStream stream = new UnmanagedMemoryStream(buffer.asReadOnlyBuffer());
+        assertFalse(stream.canWrite());
+        assertEquals(10, stream.getLength());
+        stream.setPosition(3);
+        assertEquals(3, stream.readByte());
+        assertThrows(UnsupportedOperationException.class, () -> stream.writeByte((byte) 0));
+        stream.close();
+    }
+
+    @Test
+    void testAllocate() throws Exception {
+        UnmanagedMemoryStream stream = UnmanagedMemoryStream.allocate(100);
+        assertEquals(0, stream.getLength());
+        stream.setLength(100);
+        stream.seek(-1, SeekOrigin.End);
+        assertEquals(0, stream.readByte());
+        stream.close();
+    }
+
+    @Test
+    void testLastSegmentSize() throws Exception {
+        ByteBuffer[] segments = { ByteBuffer.allocateDirect(1000), ByteBuffer.allocateDirect(1001) };
+        assertThrows(IllegalArgumentException.class, () -> new UnmanagedMemoryStream(segments, 0, FileAccess.ReadWrite));
+    }
+
+    @Test
+    void testConcurrentExtend() throws Exception {
+        int threads = 8;
+        int writes = 500;
+        int size = 100;
+        UnmanagedMemoryStream stream = UnmanagedMemoryStream.allocate((long) threads * writes * size);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                byte[] block = new byte[size];
+                Arrays.fill(block, (byte) (thread + 1));
+                // interleaved blocks, each one is likely beyond the length
+                for (int i = 0; i < writes; i++) {
+                    stream.writeAt(((long) i * threads + thread) * size, block, 0, size);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals((long) threads * writes * size, stream.getLength());
+        byte[] block = new byte[size];
+        for (int i = 0; i < threads * writes; i++) {
+            assertEquals(size, stream.readAt((long) i * size, block, 0, size));
+            for (int j = 0; j < size; j++) {
+                assertEquals(i % threads + 1, block[j], "block " + i);
+            }
+        }
+    }
+}
+
+/* */
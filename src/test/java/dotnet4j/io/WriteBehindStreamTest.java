@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * WriteBehindStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class WriteBehindStreamTest {
+
+    /** counts the writes on the other threads, fails at the given position */
+    static class TestStream extends MemoryStream {
+        final Thread owner = Thread.currentThread();
+        volatile int backgroundWrites;
+        volatile int flushes;
+        volatile boolean closed;
+        long failAt = Long.MAX_VALUE;
+        @Override
+        public void write(byte[] buffer, int offset, int count) {
+            if (Thread.currentThread() != owner)
+                backgroundWrites++;
+            if (getPosition() + count > failAt)
+                throw new dotnet4j.io.IOException("test");
+            super.write(buffer, offset, count);
+        }
+        @Override
+        public void flush() {
+            flushes++;
+            super.flush();
+        }
+        @Override
+        public void close() throws java.io.IOException {
+            closed = true;
+        }
+    }
+
+    @Test
+    void testWrite() throws Exception {
+        byte[] data = new byte[100000];
+        new Random(1).nextBytes(data);
+        TestStream ts = new TestStream();
+        WriteBehindStream stream = new WriteBehindStream(ts, 1000, 3);
+
+        int n = 0;
+        while (n < 50000) {
+            int c = Math.min(777, 50000 - n);
+            stream.write(data, n, c);
+            n += c;
+        }
+        while (n < data.length) {
+            stream.writeByte(data[n++]);
+        }
+        assertEquals(data.length, stream.getPosition());
+        stream.flush();
+        assertEquals(1, ts.flushes);
+        assertArrayEquals(data, ts.toArray());
+        assertTrue(ts.backgroundWrites > 0);
+
+        stream.write(data, 0, 10);
+        stream.close();
+        assertTrue(ts.closed);
+        assertEquals(data.length + 10, ts.getLength());
+        assertFalse(stream.canWrite());
+        assertThrows(dotnet4j.io.IOException.class, () -> stream.write(data, 0, 1));
+    }
+
+    @Test
+    void testError() throws Exception {
+        TestStream ts = new TestStream();
+        ts.failAt = 5000;
+        WriteBehindStream stream = new WriteBehindStream(ts, 1000, 2);
+        byte[] buffer = new byte[100];
+        dotnet4j.io.IOException e = assertThrows(dotnet4j.io.IOException.class, () -> {
+            while (true) {
+                stream.write(buffer, 0, buffer.length);
+            }
+        });
+        assertEquals("test", e.getCause().getMessage());
+        assertThrows(dotnet4j.io.IOException.class, stream::flush);
+        assertThrows(dotnet4j.io.IOException.class, stream::close);
+        assertTrue(ts.closed);
+        assertEquals(5000, ts.getLength());
+    }
+}
+
+/* */
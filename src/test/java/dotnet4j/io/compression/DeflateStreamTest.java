@@ -4,9 +4,14 @@
 
 package dotnet4j.io.compression;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Inflater;
+
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -317,4 +322,104 @@ public class DeflateStreamTest {
             decompressing.read(buffer, 0, buffer.length);
         }
     }
+
+    // raw deflate of "Hello\n", as C# DeflateStream
+    static byte[] raw_compressed_data = {
+        (byte) 0xf3, 0x48, (byte) 0xcd, (byte) 0xc9, (byte) 0xc9, (byte) 0xe7, 0x02, 0x00
+    };
+
+    @Test
+    public void checkRawDecompress() throws Exception {
+        MemoryStream backing = new MemoryStream(raw_compressed_data);
+        DeflateStream decompressing = new DeflateStream(backing, CompressionMode.Decompress, false, true);
+        StreamReader reader = new StreamReader(decompressing);
+        assertEquals("Hello", reader.readLine());
+        decompressing.close();
+    }
+
+    @Test
+    public void checkRawCompress() throws Exception {
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        MemoryStream backing = new MemoryStream();
+        try (DeflateStream compressing = new DeflateStream(backing, CompressionLevel.SmallestSize, true, true)) {
+            compressing.write(data, 0, data.length);
+        }
+        // readable by a raw inflater
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(backing.toArray());
+        byte[] output = new byte[data.length + 1];
+        assertEquals(data.length, inflater.inflate(output));
+        inflater.end();
+        assertArrayEquals(data, Arrays.copyOf(output, data.length));
+    }
+
+    @Test
+    public void checkCompressionLevel() throws Exception {
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        long[] sizes = new long[CompressionLevel.values().length];
+        for (CompressionLevel level : CompressionLevel.values()) {
+            MemoryStream backing = new MemoryStream();
+            try (DeflateStream compressing = new DeflateStream(backing, level, true)) {
+                compressing.write(data, 0, data.length);
+            }
+            sizes[level.ordinal()] = backing.getLength();
+
+            backing.setPosition(0);
+            MemoryStream output = new MemoryStream();
+            copyStream(new DeflateStream(backing, CompressionMode.Decompress), output);
+            assertArrayEquals(data, output.toArray(), level.name());
+        }
+        assertTrue(sizes[CompressionLevel.NoCompression.ordinal()] > data.length);
+        assertTrue(sizes[CompressionLevel.Optimal.ordinal()] < data.length / 10);
+    }
+
+    @Test
+    public void checkFlush() throws Exception {
+        MemoryStream backing = new MemoryStream();
+        DeflateStream compressing = new DeflateStream(backing, CompressionMode.Compress, true);
+        byte[] hello = "Hello\n".getBytes();
+        compressing.write(hello, 0, hello.length);
+        compressing.flush();
+
+        // everything written so far can be decompressed without closing
+        MemoryStream partial = new MemoryStream(backing.toArray());
+        DeflateStream decompressing = new DeflateStream(partial, CompressionMode.Decompress);
+        byte[] buffer = new byte[20];
+        assertEquals(hello.length, decompressing.read(buffer, 0, buffer.length));
+        assertArrayEquals(hello, Arrays.copyOf(buffer, hello.length));
+        compressing.close();
+    }
+
+    @Test
+    public void checkByteBuffer() throws Exception {
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 13);
+        }
+        ByteBuffer src = ByteBuffer.allocateDirect(data.length);
+        src.put(data).flip();
+        MemoryStream backing = new MemoryStream();
+        try (DeflateStream compressing = new DeflateStream(backing, CompressionMode.Compress, true)) {
+            compressing.write(src);
+        }
+        assertEquals(0, src.remaining());
+
+        backing.setPosition(0);
+        ByteBuffer dst = ByteBuffer.allocateDirect(data.length);
+        try (DeflateStream decompressing = new DeflateStream(backing, CompressionMode.Decompress)) {
+            while (dst.hasRemaining() && decompressing.read(dst) > 0) {
+                // fill
+            }
+        }
+        dst.flip();
+        byte[] actual = new byte[dst.remaining()];
+        dst.get(actual);
+        assertArrayEquals(data, actual);
+    }
 }
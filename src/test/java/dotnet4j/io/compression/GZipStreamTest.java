@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import dotnet4j.io.MemoryStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * GZipStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class GZipStreamTest {
+
+    /** keeps the content after closed */
+    static class TestStream extends MemoryStream {
+        byte[] content;
+        @Override
+        public void close() throws java.io.IOException {
+            if (content == null)
+                content = toArray();
+            super.close();
+        }
+    }
+
+    static byte[] gunzip(byte[] compressed) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[8192];
+            int r;
+            while ((r = is.read(buffer)) > 0) {
+                baos.write(buffer, 0, r);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    void testParallel() throws Exception {
+        byte[] data = TestData.text(1000000);
+        TestStream backing = new TestStream();
+        GZipStream gzip = new GZipStream(backing, CompressionLevel.Optimal, 4);
+        int n = 0;
+        while (n < data.length) {
+            int c = Math.min(10007, data.length - n);
+            gzip.write(data, n, c);
+            n += c;
+        }
+        gzip.close();
+        byte[] compressed = backing.content;
+        assertArrayEquals(data, gunzip(compressed));
+
+        // primed with the dictionary, the size is close to the serial one
+        ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        try (GZIPOutputStream os = new GZIPOutputStream(serial)) {
+            os.write(data);
+        }
+        assertTrue(compressed.length < serial.size() * 1.05, compressed.length + ", " + serial.size());
+    }
+
+    @Test
+    void testEmptyAndFlush() throws Exception {
+        TestStream backing = new TestStream();
+        new GZipStream(backing, CompressionLevel.Fastest, 2).close();
+        assertEquals(0, gunzip(backing.content).length);
+
+        byte[] data = TestData.text(300000);
+        backing = new TestStream();
+        GZipStream gzip = new GZipStream(backing, CompressionLevel.SmallestSize, 2);
+        gzip.write(data, 0, 1000);
+        gzip.flush();
+        for (int i = 1000; i < data.length; i++) {
+            gzip.writeByte(data[i]);
+        }
+        gzip.close();
+        assertArrayEquals(data, gunzip(backing.content));
+
+        assertThrows(IllegalArgumentException.class, () -> new GZipStream(new MemoryStream(), CompressionLevel.Optimal, 0));
+    }
+
+    @Test
+    void testCombine() throws Exception {
+        byte[] data = TestData.text(100000);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, 40000);
+        long crc1 = crc.getValue();
+        crc.reset();
+        crc.update(data, 40000, 60000);
+        long crc2 = crc.getValue();
+        crc.reset();
+        crc.update(data);
+        assertEquals(crc.getValue(), ParallelGZipOutputStream.combine(crc1, crc2, 60000));
+        assertEquals(crc1, ParallelGZipOutputStream.combine(crc1, 0, 0));
+    }
+
+    @Test
+    void testDecompressOnWrite() throws Exception {
+        byte[] data = TestData.text(300000);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream os = new GZIPOutputStream(baos)) {
+            os.write(data, 0, 100000);
+        }
+        // a second member with the optional header fields
+        baos.write(new byte[] { 0x1f, (byte) 0x8b, 8, 0x1c, 0, 0, 0, 0, 0, (byte) 0xff, 2, 0, 'a', 'b', 'n', 0, 'c', 0 });
+        ByteArrayOutputStream member = new ByteArrayOutputStream();
+        try (GZIPOutputStream os = new GZIPOutputStream(member)) {
+            os.write(data, 100000, 200000);
+        }
+        byte[] second = member.toByteArray();
+        baos.write(second, 10, second.length - 10);
+        // garbage is ignored
+        baos.write(new byte[10]);
+        byte[] compressed = baos.toByteArray();
+
+        TestStream backing = new TestStream();
+        GZipStream gzip = new GZipStream(backing, CompressionMode.Decompress);
+        int n = 0;
+        for (int c = 1; n < compressed.length; c = c * 3 % 1013 + 1) {
+            c = Math.min(c, compressed.length - n);
+            gzip.write(compressed, n, c);
+            n += c;
+        }
+        gzip.close();
+        assertArrayEquals(data, backing.content);
+    }
+
+    @Test
+    void testCompressOnRead() throws Exception {
+        byte[] data = TestData.text(300000);
+        GZipStream gzip = new GZipStream(new MemoryStream(data), CompressionMode.Compress);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[777];
+        int r;
+        while ((r = gzip.read(buffer, 0, buffer.length)) > 0) {
+            baos.write(buffer, 0, r);
+        }
+        assertArrayEquals(data, gunzip(baos.toByteArray()));
+
+        gzip = new GZipStream(new MemoryStream(), CompressionMode.Compress);
+        baos.reset();
+        while ((r = gzip.read(buffer, 0, buffer.length)) > 0) {
+            baos.write(buffer, 0, r);
+        }
+        assertEquals(0, gunzip(baos.toByteArray()).length);
+    }
+
+    @Test
+    void testCompressEmpty() throws Exception {
+        TestStream backing = new TestStream();
+        new GZipStream(backing, CompressionMode.Compress).close();
+        assertTrue(backing.content.length > 0);
+        assertEquals(0, gunzip(backing.content).length);
+
+        // compress on read does not write a member into the source
+        backing = new TestStream();
+        backing.write(TestData.text(100), 0, 100);
+        backing.setPosition(0);
+        GZipStream gzip = new GZipStream(backing, CompressionMode.Compress);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[777];
+        int r;
+        while ((r = gzip.read(buffer, 0, buffer.length)) > 0) {
+            baos.write(buffer, 0, r);
+        }
+        gzip.close();
+        assertArrayEquals(TestData.text(100), gunzip(baos.toByteArray()));
+        assertArrayEquals(TestData.text(100), backing.content);
+    }
+
+    @Test
+    void testDecompressOnWriteInvalid() throws Exception {
+        GZipStream notGzip = new GZipStream(new MemoryStream(), CompressionMode.Decompress);
+        assertThrows(dotnet4j.io.IOException.class, () -> notGzip.write(new byte[10], 0, 10));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream os = new GZIPOutputStream(baos)) {
+            os.write(TestData.text(10000));
+        }
+        byte[] compressed = baos.toByteArray();
+        compressed[compressed.length - 6] ^= 1;
+        GZipStream corrupt = new GZipStream(new MemoryStream(), CompressionMode.Decompress);
+        assertThrows(dotnet4j.io.IOException.class, () -> corrupt.write(compressed, 0, compressed.length));
+
+        GZipStream truncated = new GZipStream(new MemoryStream(), CompressionMode.Decompress);
+        truncated.write(compressed, 0, compressed.length / 2);
+        assertThrows(java.io.IOException.class, truncated::close);
+    }
+}
+
+/* */
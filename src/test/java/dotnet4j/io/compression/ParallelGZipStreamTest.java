@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import dotnet4j.io.MemoryStream;
+import dotnet4j.io.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * ParallelGZipStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class ParallelGZipStreamTest {
+
+    /** concatenated members of the given size */
+    static byte[] members(byte[] data, int memberSize) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (int i = 0; i < data.length; i += memberSize) {
+            baos.write(TestData.gzip(data, i, Math.min(memberSize, data.length - i)));
+        }
+        return baos.toByteArray();
+    }
+
+    /** BGZF blocks of 60000 bytes of input with the empty end block */
+    static byte[] bgzf(byte[] data) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        byte[] buffer = new byte[70000];
+        for (int i = 0; i <= data.length; i += 60000) {
+            int length = Math.min(60000, data.length - i);
+            deflater.reset();
+            deflater.setInput(data, i, length);
+            deflater.finish();
+            int n = deflater.deflate(buffer);
+            int size = 18 + n + 8;
+            baos.write(new byte[] {
+                0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+                (byte) (size - 1), (byte) ((size - 1) >> 8)
+            }, 0, 18);
+            baos.write(buffer, 0, n);
+            CRC32 crc = new CRC32();
+            crc.update(data, i, length);
+            long c = crc.getValue();
+            baos.write(new byte[] {
+                (byte) c, (byte) (c >> 8), (byte) (c >> 16), (byte) (c >> 24),
+                (byte) length, (byte) (length >> 8), (byte) (length >> 16), (byte) (length >> 24)
+            }, 0, 8);
+            if (length == 0)
+                break;
+        }
+        deflater.end();
+        return baos.toByteArray();
+    }
+
+    static byte[] readAll(ParallelGZipStream stream) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7777];
+        int r;
+        while ((r = stream.read(buffer, 0, buffer.length)) > 0) {
+            baos.write(buffer, 0, r);
+        }
+        stream.close();
+        return baos.toByteArray();
+    }
+
+    @Test
+    void testMembers() throws Exception {
+        byte[] data = TestData.text(3000000);
+        byte[] compressed = members(data, 20000);
+        ParallelGZipStream stream = new ParallelGZipStream(new MemoryStream(compressed), CompressionMode.Decompress,
+                                                           false, 4, 16 * 1024);
+        assertArrayEquals(data, readAll(stream));
+    }
+
+    @Test
+    void testBgzf() throws Exception {
+        byte[] data = TestData.text(3000000);
+        ParallelGZipStream stream = new ParallelGZipStream(new MemoryStream(bgzf(data)), CompressionMode.Decompress,
+                                                           false, 3, 50000);
+        assertArrayEquals(data, readAll(stream));
+    }
+
+    @Test
+    void testSingleMember() throws Exception {
+        byte[] data = TestData.text(3000000);
+        byte[] compressed = TestData.gzip(data, 0, data.length);
+        ParallelGZipStream stream = new ParallelGZipStream(new MemoryStream(compressed), CompressionMode.Decompress,
+                                                           false, 4, 16 * 1024);
+        assertArrayEquals(data, readAll(stream));
+    }
+
+    @Test
+    void testFalseBoundary() throws Exception {
+        // a stored member including a gzip header, followed by small members
+        byte[] data = TestData.text(400000);
+        byte[] fake = TestData.gzip(new byte[0], 0, 0);
+        for (int i = 1000; i < 100000; i += 20000)
+            System.arraycopy(fake, 0, data, i, fake.length);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream os = new GZIPOutputStream(baos) {{ def.setLevel(Deflater.NO_COMPRESSION); }}) {
+            os.write(data, 0, 100000);
+        }
+        baos.write(members(java.util.Arrays.copyOfRange(data, 100000, data.length), 10000));
+        // garbage is ignored
+        baos.write(new byte[100]);
+
+        ParallelGZipStream stream = new ParallelGZipStream(new MemoryStream(baos.toByteArray()), CompressionMode.Decompress,
+                                                           false, 4, 8 * 1024);
+        assertArrayEquals(data, readAll(stream));
+    }
+
+    @Test
+    void testCloseWithJobs() throws Exception {
+        byte[] data = TestData.text(3000000);
+        byte[] compressed = members(data, 20000);
+        // the tasks but the first are held until released
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService threads = Executors.newCachedThreadPool();
+        Executor executor = task -> {
+            boolean first = started.getAndIncrement() == 0;
+            threads.execute(() -> {
+                try {
+                    if (!first)
+                        release.await();
+                    task.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.incrementAndGet();
+                }
+            });
+        };
+        Executor original = Stream.getAsyncExecutor();
+        Stream.setAsyncExecutor(executor);
+        try {
+            ParallelGZipStream stream = new ParallelGZipStream(new MemoryStream(compressed), CompressionMode.Decompress,
+                                                               false, 4, 16 * 1024);
+            byte[] buffer = new byte[100];
+            assertEquals(100, stream.read(buffer, 0, buffer.length));
+            assertTrue(started.get() > 1, String.valueOf(started.get()));
+
+            // closing waits for the held jobs, which are cancelled and return at once
+            Future<?> closing = threads.submit(() -> { stream.close(); return null; });
+            Thread.sleep(100);
+            assertFalse(closing.isDone());
+            release.countDown();
+            closing.get(10, TimeUnit.SECONDS);
+            threads.shutdown();
+            assertTrue(threads.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(started.get(), finished.get());
+        } finally {
+            Stream.setAsyncExecutor(original);
+            threads.shutdownNow();
+        }
+        ParallelGZipStream stream = new ParallelGZipStream(new MemoryStream(compressed), CompressionMode.Decompress,
+                                                           false, 4, 16 * 1024);
+        assertArrayEquals(data, readAll(stream));
+    }
+
+    @Test
+    void testInvalid() throws Exception {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new ParallelGZipStream(new MemoryStream(), CompressionMode.Compress, 2));
+        ParallelGZipStream stream = new ParallelGZipStream(new MemoryStream(new byte[100]), CompressionMode.Decompress, 2);
+        assertThrows(dotnet4j.io.IOException.class, () -> stream.read(new byte[10], 0, 10));
+
+        byte[] compressed = members(TestData.text(100000), 10000);
+        compressed[compressed.length / 2] ^= 0x55;
+        ParallelGZipStream corrupt = new ParallelGZipStream(new MemoryStream(compressed), CompressionMode.Decompress,
+                                                            false, 2, 4096);
+        assertThrows(dotnet4j.io.IOException.class, () -> readAll(corrupt));
+        assertEquals(0, readAll(new ParallelGZipStream(new MemoryStream(), CompressionMode.Decompress, 2)).length);
+    }
+}
+
+/* */
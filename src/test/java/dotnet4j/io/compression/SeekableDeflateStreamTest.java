@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import dotnet4j.io.MemoryStream;
+import dotnet4j.io.SeekOrigin;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * SeekableDeflateStreamTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class SeekableDeflateStreamTest {
+
+    static byte[] deflate(byte[] data, boolean nowrap) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+        try (DeflaterOutputStream os = new DeflaterOutputStream(baos, deflater)) {
+            os.write(data);
+        }
+        deflater.end();
+        return baos.toByteArray();
+    }
+
+    static byte[] readFully(SeekableDeflateStream stream, int length) {
+        byte[] result = new byte[length];
+        int n = 0;
+        while (n < length) {
+            int r = stream.read(result, n, length - n);
+            if (r == 0)
+                break;
+            n += r;
+        }
+        assertEquals(length, n);
+        return result;
+    }
+
+    /** decompresses all, then reads at random positions */
+    private static void testRandomAccess(byte[] data, SeekableDeflateStream stream) throws Exception {
+        assertArrayEquals(data, readFully(stream, data.length));
+        assertEquals(0, stream.read(new byte[1], 0, 1));
+        assertEquals(data.length, stream.getLength());
+        assertTrue(stream.getCheckpointCount() > 5, String.valueOf(stream.getCheckpointCount()));
+
+        Random random = new Random(2);
+        for (int i = 0; i < 50; i++) {
+            int position = random.nextInt(data.length);
+            int length = Math.min(random.nextInt(5000), data.length - position);
+            assertEquals(position, stream.seek(position, SeekOrigin.Begin));
+            byte[] expected = new byte[length];
+            System.arraycopy(data, position, expected, 0, length);
+            assertArrayEquals(expected, readFully(stream, length), "at " + position);
+        }
+
+        assertEquals(data.length - 10, stream.seek(-10, SeekOrigin.End));
+        assertEquals(data[data.length - 10] & 0xff, stream.readByte());
+        stream.setPosition(0);
+        assertEquals(data[0] & 0xff, stream.readByte());
+        stream.close();
+    }
+
+    @Test
+    void testZLib() throws Exception {
+        byte[] data = TestData.text(2000000, true);
+        MemoryStream backing = new MemoryStream(deflate(data, false));
+        testRandomAccess(data, new SeekableDeflateStream(backing, CompressionMode.Decompress, false,
+                                                         SeekableDeflateStream.Format.ZLib, 100000));
+    }
+
+    @Test
+    void testRaw() throws Exception {
+        byte[] data = TestData.text(2000000, true);
+        MemoryStream backing = new MemoryStream(deflate(data, true));
+        testRandomAccess(data, new SeekableDeflateStream(backing, CompressionMode.Decompress, false,
+                                                         SeekableDeflateStream.Format.Deflate, 100000));
+    }
+
+    @Test
+    void testGZip() throws Exception {
+        byte[] data = TestData.text(2000000, true);
+        MemoryStream backing = new MemoryStream(TestData.gzip(data, 0, data.length));
+        testRandomAccess(data, new SeekableDeflateStream(backing, CompressionMode.Decompress, false,
+                                                         SeekableDeflateStream.Format.GZip, 100000));
+    }
+
+    @Test
+    void testLengthFirst() throws Exception {
+        byte[] data = TestData.text(300000, true);
+        MemoryStream backing = new MemoryStream(deflate(data, false));
+        SeekableDeflateStream stream = new SeekableDeflateStream(backing, CompressionMode.Decompress, false,
+                                                                 SeekableDeflateStream.Format.ZLib, 10000);
+        assertEquals(data.length, stream.getLength());
+        assertEquals(0, stream.getPosition());
+        stream.seek(200000, SeekOrigin.Begin);
+        assertEquals(data[200000] & 0xff, stream.readByte());
+        // beyond the end stops at the end
+        assertEquals(data.length, stream.seek(data.length + 100, SeekOrigin.Begin));
+        stream.close();
+    }
+
+    /** counts the bytes read, and the lowest position read from */
+    static class CountingStream extends MemoryStream {
+        long bytesRead;
+        long lowest = Long.MAX_VALUE;
+
+        CountingStream(byte[] buffer) {
+            super(buffer);
+        }
+
+        void reset() {
+            bytesRead = 0;
+            lowest = Long.MAX_VALUE;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) {
+            lowest = Math.min(lowest, getPosition());
+            int n = super.read(buffer, offset, count);
+            bytesRead += n;
+            return n;
+        }
+    }
+
+    @Test
+    void testResumeFromCheckpoint() throws Exception {
+        byte[] data = TestData.text(2000000);
+        byte[] compressed = deflate(data, true);
+        CountingStream backing = new CountingStream(compressed);
+        SeekableDeflateStream stream = new SeekableDeflateStream(backing, CompressionMode.Decompress, false,
+                                                                 SeekableDeflateStream.Format.Deflate, 100000);
+        assertEquals(data.length, stream.getLength());
+        assertTrue(stream.getCheckpointCount() > 5, String.valueOf(stream.getCheckpointCount()));
+        assertTrue(backing.bytesRead >= compressed.length);
+
+        // backward near the end, only the input from the checkpoint before the target is read
+        int target = data.length - 50000;
+        backing.reset();
+        stream.seek(target, SeekOrigin.Begin);
+        assertArrayEquals(Arrays.copyOfRange(data, target, target + 1000), readFully(stream, 1000));
+        assertTrue(backing.lowest > compressed.length * 8L / 10, backing.lowest + ", " + compressed.length);
+        assertTrue(backing.bytesRead < compressed.length / 5, backing.bytesRead + ", " + compressed.length);
+
+        // backward to the head, decoding starts at the origin again
+        backing.reset();
+        stream.seek(10, SeekOrigin.Begin);
+        assertArrayEquals(Arrays.copyOfRange(data, 10, 1010), readFully(stream, 1000));
+        assertEquals(0, backing.lowest);
+        stream.close();
+    }
+
+    @Test
+    void testInvalid() throws Exception {
+        assertThrows(IllegalArgumentException.class,
+                     () -> new SeekableDeflateStream(new MemoryStream(), CompressionMode.Compress));
+        assertThrows(dotnet4j.io.IOException.class,
+                     () -> new SeekableDeflateStream(new MemoryStream(new byte[] { 1, 2, 3 }), CompressionMode.Decompress));
+
+        byte[] compressed = deflate(TestData.text(100000, true), true);
+        byte[] truncated = new byte[compressed.length / 2];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+        SeekableDeflateStream stream = new SeekableDeflateStream(new MemoryStream(truncated), CompressionMode.Decompress,
+                                                                 false, SeekableDeflateStream.Format.Deflate);
+        assertThrows(dotnet4j.io.IOException.class, () -> readFully(stream, 100000));
+    }
+}
+
+/* */
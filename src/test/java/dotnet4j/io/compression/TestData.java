@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * TestData, the fixtures shared by the compression tests.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+final class TestData {
+
+    private TestData() {
+    }
+
+    /** compressible text like data */
+    static byte[] text(int length) {
+        return text(length, false);
+    }
+
+    /**
+     * @param noise true: with some incompressible parts, which become stored blocks
+     */
+    static byte[] text(int length, boolean noise) {
+        Random random = new Random(1);
+        String[] words = { "alpha ", "beta ", "gamma ", "delta ", "epsilon\n", "zeta ", "eta ", "theta " };
+        byte[] data = new byte[length];
+        int n = 0;
+        while (n < length) {
+            if (noise && random.nextInt(100) == 0) {
+                int c = Math.min(random.nextInt(70000), length - n);
+                byte[] bytes = new byte[c];
+                random.nextBytes(bytes);
+                System.arraycopy(bytes, 0, data, n, c);
+                n += c;
+                continue;
+            }
+            byte[] word = words[random.nextInt(words.length)].getBytes();
+            int c = Math.min(word.length, length - n);
+            System.arraycopy(word, 0, data, n, c);
+            n += c;
+        }
+        return data;
+    }
+
+    /** a single gzip member by {@link GZIPOutputStream} */
+    static byte[] gzip(byte[] data, int offset, int length) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream os = new GZIPOutputStream(baos)) {
+            os.write(data, offset, length);
+        }
+        return baos.toByteArray();
+    }
+}
+
+/* */
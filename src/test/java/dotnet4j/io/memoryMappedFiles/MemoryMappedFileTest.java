@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 by Naohide Sano, All rights reserved.
+ *
+ * Programmed by Naohide Sano
+ */
+
+package dotnet4j.io.memoryMappedFiles;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dotnet4j.io.FileMode;
+import dotnet4j.io.SeekOrigin;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * MemoryMappedFileTest.
+ *
+ * @author <a href="mailto:umjammer@gmail.com">Naohide Sano</a> (umjammer)
+ * @version 0.00 2026/10/18 umjammer initial version <br>
+ */
+class MemoryMappedFileTest {
+
+    Path file;
+
+    byte[] data;
+
+    @BeforeEach
+    void setup() throws Exception {
+        file = Files.createTempFile("mmf", ".bin");
+        data = new byte[10000];
+        new Random(1).nextBytes(data);
+        Files.write(file, data);
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void testRead() throws Exception {
+        try (MemoryMappedFile mmf = MemoryMappedFile.createFromFile(file.toString(), FileMode.Open, null, 0, MemoryMappedFileAccess.Read)) {
+            assertEquals(data.length, mmf.getCapacity());
+            MemoryMappedViewStream view = mmf.createViewStream(100, 0, MemoryMappedFileAccess.Read);
+            assertFalse(view.canWrite());
+            assertEquals(data.length - 100, view.getLength());
+            assertEquals(data[100] & 0xff, view.readByte());
+            view.seek(-1, SeekOrigin.End);
+            assertEquals(data[data.length - 1] & 0xff, view.readByte());
+            assertEquals(-1, view.readByte());
+            assertThrows(UnsupportedOperationException.class, () -> view.setLength(1));
+            assertThrows(IllegalArgumentException.class, () -> mmf.createViewStream(0, 0, MemoryMappedFileAccess.ReadWrite));
+            view.close();
+        }
+    }
+
+    @Test
+    void testWindows() throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // windows smaller than a read
+            MemoryMappedViewStream view = new MemoryMappedViewStream(channel, 0, data.length, MemoryMappedFileAccess.ReadWrite, 1024);
+            byte[] buffer = new byte[data.length];
+            assertEquals(data.length, view.read(buffer, 0, buffer.length));
+            assertArrayEquals(data, buffer);
+
+            view.setPosition(1020);
+            view.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, 0, 8);
+            view.flush();
+            view.close();
+        }
+        byte[] actual = Files.readAllBytes(file);
+        assertEquals(1, actual[1020]);
+        assertEquals(8, actual[1027]);
+        assertEquals(data[1028], actual[1028]);
+    }
+
+    @Test
+    void testExtend() throws Exception {
+        try (MemoryMappedFile mmf = MemoryMappedFile.createFromFile(file.toString(), FileMode.Open, null, 20000)) {
+            MemoryMappedViewStream view = mmf.createViewStream();
+            view.seek(19999, SeekOrigin.Begin);
+            view.writeByte((byte) 9);
+            view.close();
+        }
+        assertEquals(20000, Files.size(file));
+        assertThrows(dotnet4j.io.FileNotFoundException.class, () -> MemoryMappedFile.createFromFile(file + ".none"));
+    }
+}
+
+/* */